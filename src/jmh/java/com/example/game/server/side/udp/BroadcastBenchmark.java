@@ -0,0 +1,93 @@
+package com.example.game.server.side.udp;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+// N simulated players on a UdpServer that is never started: packets go through the same
+// onPacket path the receivers use and every tick builds and queues snapshots for all of them.
+// Nothing reaches a socket, so this measures the server's own work per packet and per tick. No
+// client acks either, so delta snapshots are the no-baseline worst case.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BroadcastBenchmark {
+
+    @Param({"16", "128", "1024"})
+    public int players;
+
+    @Param({"true", "false"})
+    public boolean deltaSnapshots;
+
+    private UdpServer server;
+    private Room room;
+    private final PacketView view = new PacketView();
+    private InetSocketAddress[] addresses;
+    private ByteBuffer[] movePackets;
+    private long tick;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        final var properties = new UdpProperties();
+        properties.setMaxSessions(players);
+        properties.setDeltaSnapshots(deltaSnapshots);
+        // The tick benchmark sends no packets, players must outlive the run
+        properties.setDisconnectTimeout(TimeUnit.HOURS.toMillis(1));
+        final var metrics = new UdpMetrics(new SimpleMeterRegistry());
+        server = new UdpServer(properties, new PacketTracer(properties), new ReplayRecorder(properties, metrics), metrics,
+                new MessageDispatcher(properties, metrics), PlayerStateSink.NONE);
+
+        room = server.defaultRoom();
+
+        // Players spread over a 1000 x 1000 area so the interest radius keeps only some of them
+        addresses = new InetSocketAddress[players];
+        movePackets = new ByteBuffer[players];
+        final var side = (int) Math.ceil(Math.sqrt(players));
+        for (int i = 0; i < players; i++) {
+            addresses[i] = new InetSocketAddress("10.0." + (i >> 8) + "." + (i & 0xFF), 40000 + i);
+            movePackets[i] = ByteBuffer.allocateDirect(UDPPacket.HEADER_SIZE + PacketView.MOVE_PAYLOAD_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN)
+                    .put(UDPPacket.MOVE).putShort((short) (UDPPacket.HEADER_SIZE + PacketView.MOVE_PAYLOAD_SIZE)).putInt(i)
+                    .putFloat((i % side) * 1000f / side).putFloat(0f).putFloat((i / side) * 1000f / side).put((byte) 0)
+                    .flip();
+            server.onPacket(view.wrap(movePackets[i]), addresses[i], 0);
+        }
+        room.applyInput();
+    }
+
+    // Moves are applied once per round through all players, like a tick would, so the ring never fills
+    @Benchmark
+    public void receiveMove() {
+        final var i = next;
+        server.onPacket(view.wrap(movePackets[i]), addresses[i], 0);
+        if (i + 1 == players) {
+            room.applyInput();
+            next = 0;
+        } else {
+            next = i + 1;
+        }
+    }
+
+    @Benchmark
+    public void tick() {
+        room.onTick(++tick);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.game.server.side.udp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+// Encode/decode cost of single packets: the byte[] codec, the in-place PacketView decode the
+// receivers use, and building full and delta snapshot datagrams.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PacketCodecBenchmark {
+
+    private static final int SNAPSHOT_PLAYERS = 64;
+    private static final float PRECISION = 0.01f;
+
+    private UDPPacket movePacket;
+    private byte[] moveBytes;
+    private ByteBuffer moveBuffer;
+    private final PacketView view = new PacketView();
+    private ByteBuffer snapshotBuffer;
+    private final BitWriter bits = new BitWriter();
+    private SnapshotFrame baseline;
+    private SnapshotFrame frame;
+
+    @Setup
+    public void setUp() {
+        final var payload = ByteBuffer.allocate(PacketView.MOVE_PAYLOAD_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+                .putFloat(12.5f).putFloat(3f).putFloat(-40.25f).put((byte) 1).array();
+        movePacket = new UDPPacket(UDPPacket.MOVE, 42, payload, (short) (UDPPacket.HEADER_SIZE + payload.length));
+        moveBytes = movePacket.toByteArray();
+        moveBuffer = ByteBuffer.allocateDirect(moveBytes.length).order(ByteOrder.LITTLE_ENDIAN).put(moveBytes).flip();
+
+        snapshotBuffer = ByteBuffer.allocateDirect(1200).order(ByteOrder.LITTLE_ENDIAN);
+        baseline = new SnapshotFrame(SNAPSHOT_PLAYERS);
+        frame = new SnapshotFrame(SNAPSHOT_PLAYERS);
+        baseline.reset(1);
+        frame.reset(2);
+        for (int i = 0; i < SNAPSHOT_PLAYERS; i++) {
+            final var x = UDPPacket.quantize(i * 3.5f, PRECISION);
+            final var z = UDPPacket.quantize(i * -1.25f, PRECISION);
+            baseline.add(i, x, 0, z, (byte) 0);
+            // A third of the players moved since the baseline
+            frame.add(i, i % 3 == 0 ? x + 25 : x, 0, z, (byte) 0);
+        }
+    }
+
+    @Benchmark
+    public byte[] toByteArray() {
+        return movePacket.toByteArray();
+    }
+
+    @Benchmark
+    public UDPPacket fromByteArray() {
+        return UDPPacket.fromByteArray(moveBytes);
+    }
+
+    // What UdpServer.handlePacket reads from a MOVE, straight out of the receive buffer
+    @Benchmark
+    public void viewDecode(Blackhole blackhole) {
+        final var packet = view.wrap(moveBuffer);
+        blackhole.consume(packet.isValid());
+        blackhole.consume(packet.messageType());
+        blackhole.consume(packet.playerId());
+        blackhole.consume(packet.x());
+        blackhole.consume(packet.y());
+        blackhole.consume(packet.z());
+        blackhole.consume(packet.facing());
+    }
+
+    @Benchmark
+    public ByteBuffer fullSnapshot() {
+        UDPPacket.beginSnapshot(snapshotBuffer, 2);
+        for (int i = 0; i < SNAPSHOT_PLAYERS; i++) {
+            UDPPacket.putSnapshotEntry(snapshotBuffer, i, frame.x(i) * PRECISION, 0f, frame.z(i) * PRECISION, (byte) 0);
+        }
+        UDPPacket.finishSnapshot(snapshotBuffer, SNAPSHOT_PLAYERS);
+        return snapshotBuffer;
+    }
+
+    @Benchmark
+    public int deltaSnapshot() {
+        return UDPPacket.writeDeltaSnapshot(snapshotBuffer, bits, frame, 0, baseline, 0, PRECISION);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.game.server.side.loadtest;
+
+import java.util.Arrays;
+
+// Millisecond buckets up to a fixed maximum, values above it land in the last bucket. Enough for
+// percentiles of move-to-snapshot latency without pulling in a histogram library.
+public class LatencyHistogram {
+
+    private final long[] counts;
+    private long total;
+
+    public LatencyHistogram(int maxMillis) {
+        this.counts = new long[maxMillis + 1];
+    }
+
+    public synchronized void record(int millis) {
+        counts[Math.min(Math.max(millis, 0), counts.length - 1)]++;
+        total++;
+    }
+
+    public synchronized long count() {
+        return total;
+    }
+
+    // Smallest bucket covering the given fraction of samples, -1 when empty
+    public synchronized int percentile(double fraction) {
+        if (total == 0) {
+            return -1;
+        }
+        final var rank = (long) Math.ceil(fraction * total);
+        var seen = 0L;
+        for (int millis = 0; millis < counts.length; millis++) {
+            seen += counts[millis];
+            if (seen >= rank) {
+                return millis;
+            }
+        }
+        return counts.length - 1;
+    }
+
+    public synchronized void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+    }
+
+    public synchronized void reset() {
+        Arrays.fill(counts, 0);
+        total = 0;
+    }
+}
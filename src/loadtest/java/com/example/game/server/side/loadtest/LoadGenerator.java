@@ -0,0 +1,160 @@
+package com.example.game.server.side.loadtest;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+// Headless load test against a running server. Simulates UDP players sending movement and STOMP
+// lobby clients, prints one report line per second and a summary at the end. Run it with
+// increasing --players until latency or loss degrades to find the ceiling of a node:
+//
+//   mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--players=2000 --stomp-players=500 --server-pid=1234"
+//
+// Options (defaults in brackets): --host [localhost], --udp-port [8081], --http-port [8080],
+// --players [1000], --stomp-players [0], --rate moves per second per player [20],
+// --group-size players that see each other [16], --first-player-id [100000],
+// --connect-rate STOMP connects per second [200], --duration seconds [60],
+// --server-pid to sample the server's CPU time (same host only).
+public class LoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        final var options = parse(args);
+        final var host = options.getOrDefault("host", "localhost");
+        final var udpPort = intOption(options, "udp-port", 8081);
+        final var httpPort = intOption(options, "http-port", 8080);
+        final var players = intOption(options, "players", 1000);
+        final var stompPlayers = intOption(options, "stomp-players", 0);
+        final var rate = intOption(options, "rate", 20);
+        final var groupSize = intOption(options, "group-size", 16);
+        final var firstPlayerId = intOption(options, "first-player-id", 100_000);
+        final var connectRate = intOption(options, "connect-rate", 200);
+        final var duration = intOption(options, "duration", 60);
+        final var serverCpu = new CpuSampler(options.containsKey("server-pid") ? Long.parseLong(options.get("server-pid")) : -1);
+
+        System.out.printf("UDP players %d at %d moves/s against %s:%d, STOMP players %d against port %d, %d s%n",
+                players, rate, host, udpPort, stompPlayers, httpPort, duration);
+
+        try (final var udp = new UdpLoad(new InetSocketAddress(host, udpPort), players, firstPlayerId, groupSize, rate);
+             final var stomp = new StompLoad("ws://" + host + ":" + httpPort + "/game-websocket", stompPlayers, firstPlayerId, connectRate)) {
+            udp.start();
+            if (stompPlayers > 0) {
+                stomp.start();
+            }
+
+            final var total = new LatencyHistogram(5000);
+            var lastMoves = 0L;
+            var lastSnapshots = 0L;
+            var lastMissed = 0L;
+            var lastBytes = 0L;
+            System.out.println("  sec   moves/s  snaps/s  loss%   p50ms  p99ms p99.9ms   KB/s in  server-cpu%  stomp");
+            for (int second = 1; second <= duration; second++) {
+                Thread.sleep(1000);
+                final var moves = udp.movesSent();
+                final var snapshots = udp.snapshotsReceived();
+                final var missed = udp.snapshotsMissed();
+                final var bytes = udp.bytesReceived();
+                final var latency = udp.latency();
+                // Swap the interval out under the histogram's lock so the receiver keeps recording
+                final LatencyHistogram interval;
+                synchronized (latency) {
+                    interval = new LatencyHistogram(5000);
+                    interval.add(latency);
+                    latency.reset();
+                }
+                total.add(interval);
+
+                System.out.printf("%5d %9d %8d %6.2f %7d %6d %7d %9d %12s  %d/%d%n",
+                        second, moves - lastMoves, snapshots - lastSnapshots,
+                        lossPercent(missed - lastMissed, snapshots - lastSnapshots),
+                        interval.percentile(0.5), interval.percentile(0.99), interval.percentile(0.999),
+                        (bytes - lastBytes) / 1024, serverCpu.sample(), stomp.connected(), stompPlayers);
+                lastMoves = moves;
+                lastSnapshots = snapshots;
+                lastMissed = missed;
+                lastBytes = bytes;
+            }
+
+            System.out.println();
+            System.out.printf("moves sent %d (%d send failures), snapshots received %d, snapshot loss %.3f%%%n",
+                    udp.movesSent(), udp.sendFailures(), udp.snapshotsReceived(),
+                    lossPercent(udp.snapshotsMissed(), udp.snapshotsReceived()));
+            System.out.printf("move-to-snapshot latency ms: p50 %d, p90 %d, p99 %d, p99.9 %d, max %d (%d samples)%n",
+                    total.percentile(0.5), total.percentile(0.9), total.percentile(0.99), total.percentile(0.999),
+                    total.percentile(1.0), total.count());
+            if (stompPlayers > 0) {
+                final var connect = stomp.connectLatency();
+                System.out.printf("STOMP connected %d/%d (%d failed), lobby messages %d, connect ms p50 %d, p99 %d%n",
+                        stomp.connected(), stompPlayers, stomp.failed(), stomp.lobbyMessages(),
+                        connect.percentile(0.5), connect.percentile(0.99));
+            }
+            System.out.printf("server CPU over the run: %s%n", serverCpu.overall());
+        }
+    }
+
+    private static double lossPercent(long missed, long received) {
+        final var expected = missed + received;
+        return expected == 0 ? 0 : 100.0 * missed / expected;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        final var options = new HashMap<String, String>();
+        for (final var arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            final var separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        final var value = options.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    // CPU time of the server process as a percentage of one core, from the OS process table
+    private static class CpuSampler {
+
+        private final ProcessHandle process;
+        private final long startNanos;
+        private final Duration startCpu;
+        private long lastNanos;
+        private Duration lastCpu;
+
+        CpuSampler(long pid) {
+            this.process = pid > 0 ? ProcessHandle.of(pid).orElse(null) : null;
+            this.startNanos = System.nanoTime();
+            this.startCpu = cpu().orElse(Duration.ZERO);
+            this.lastNanos = startNanos;
+            this.lastCpu = startCpu;
+        }
+
+        String sample() {
+            final var now = System.nanoTime();
+            final var cpu = cpu();
+            if (cpu.isEmpty()) {
+                return "n/a";
+            }
+            final var percent = percent(cpu.get().minus(lastCpu), now - lastNanos);
+            lastNanos = now;
+            lastCpu = cpu.get();
+            return percent;
+        }
+
+        String overall() {
+            return cpu().map(cpu -> percent(cpu.minus(startCpu), System.nanoTime() - startNanos) + " of one core")
+                    .orElse("n/a (pass --server-pid)");
+        }
+
+        private Optional<Duration> cpu() {
+            return process != null ? process.info().totalCpuDuration() : Optional.empty();
+        }
+
+        private static String percent(Duration cpu, long wallNanos) {
+            return String.format("%.1f", 100.0 * cpu.toNanos() / wallNanos);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.game.server.side.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Simulated lobby clients: STOMP sessions to /game-websocket carrying the playerId header the
+// server's connect listener expects, each subscribed to the lobby state topic. Sessions are opened
+// at a fixed rate so the connect storm itself does not dominate the measurement.
+public class StompLoad implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(StompLoad.class);
+
+    private final String url;
+    private final int players;
+    private final int firstPlayerId;
+    private final int connectsPerSecond;
+    private final WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+    private final List<StompSession> sessions = new CopyOnWriteArrayList<>();
+
+    private final LongAdder connected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder lobbyMessages = new LongAdder();
+    private final LatencyHistogram connectLatency = new LatencyHistogram(30_000);
+
+    private volatile boolean running = true;
+    private Thread connector;
+
+    public StompLoad(String url, int players, int firstPlayerId, int connectsPerSecond) {
+        this.url = url;
+        this.players = players;
+        this.firstPlayerId = firstPlayerId;
+        this.connectsPerSecond = connectsPerSecond;
+    }
+
+    public void start() {
+        connector = new Thread(this::connectLoop, "load-stomp-connector");
+        connector.start();
+    }
+
+    public long connected() {
+        return connected.sum();
+    }
+
+    public long failed() {
+        return failed.sum();
+    }
+
+    public long lobbyMessages() {
+        return lobbyMessages.sum();
+    }
+
+    // Handshake until CONNECTED frame
+    public LatencyHistogram connectLatency() {
+        return connectLatency;
+    }
+
+    private void connectLoop() {
+        final var period = TimeUnit.SECONDS.toNanos(1) / connectsPerSecond;
+        for (int i = 0; i < players && running; i++) {
+            final var headers = new StompHeaders();
+            headers.add("playerId", String.valueOf(firstPlayerId + i));
+            final var started = System.nanoTime();
+            client.connectAsync(url, new WebSocketHttpHeaders(), headers, new LobbySessionHandler(started))
+                    .exceptionally(e -> {
+                        failed.increment();
+                        logger.debug("STOMP connect failed: {}", e.getMessage());
+                        return null;
+                    });
+            LockSupport.parkNanos(period);
+        }
+    }
+
+    private class LobbySessionHandler extends StompSessionHandlerAdapter {
+
+        private final long started;
+
+        LobbySessionHandler(long started) {
+            this.started = started;
+        }
+
+        @Override
+        public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+            connectLatency.record((int) TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            connected.increment();
+            sessions.add(session);
+            session.subscribe("/topic/lobby-state", new StompFrameHandler() {
+                @Override
+                public Type getPayloadType(StompHeaders headers) {
+                    return byte[].class;
+                }
+
+                @Override
+                public void handleFrame(StompHeaders headers, Object payload) {
+                    lobbyMessages.increment();
+                }
+            });
+        }
+
+        @Override
+        public void handleException(StompSession session, StompCommand command, StompHeaders headers, byte[] payload, Throwable exception) {
+            logger.debug("STOMP error", exception);
+        }
+
+        @Override
+        public void handleTransportError(StompSession session, Throwable exception) {
+            logger.debug("STOMP transport error: {}", exception.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        running = false;
+        if (connector != null) {
+            connector.join(2000);
+        }
+        for (final var session : sessions) {
+            if (session.isConnected()) {
+                session.disconnect();
+            }
+        }
+        client.stop();
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.game.server.side.loadtest;
+
+import com.example.game.server.side.udp.BitReader;
+import com.example.game.server.side.udp.PacketView;
+import com.example.game.server.side.udp.SnapshotFrame;
+import com.example.game.server.side.udp.UDPPacket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Simulated UDP players, one socket each so the server sees them as separate clients. One thread
+// sends MOVE packets for every player at a fixed rate, another reads the snapshots they get back.
+//
+// Latency is measured end to end without server support: a player's x coordinate carries the
+// wall-clock millisecond its move was sent (mod LATENCY_WRAP_MILLIS), so when another player of the
+// same group first sees that x in a snapshot, now minus x is the move-to-snapshot latency. Groups
+// sit far apart on z so each player's area of interest holds only its own group. Clients never ack,
+// so every delta snapshot is self-contained and decodes without a baseline.
+public class UdpLoad implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(UdpLoad.class);
+
+    // x spans 0..50 world units at 0.01 precision, well inside the default interest radius
+    private static final int LATENCY_WRAP_MILLIS = 5000;
+    private static final float GROUP_SPACING = 1000f;
+
+    private final InetSocketAddress server;
+    private final int players;
+    private final int firstPlayerId;
+    private final int groupSize;
+    private final int movesPerSecond;
+    private final DatagramChannel[] channels;
+    private final Selector selector;
+    // Last x code seen per (observer, group member), so a repeated position is not counted twice
+    private final int[] lastSeen;
+    private final int[] lastTick;
+
+    private final LongAdder movesSent = new LongAdder();
+    private final LongAdder sendFailures = new LongAdder();
+    private final LongAdder snapshotsReceived = new LongAdder();
+    private final LongAdder snapshotsMissed = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram(LATENCY_WRAP_MILLIS);
+
+    private volatile boolean running = true;
+    private Thread sender;
+    private Thread receiver;
+
+    public UdpLoad(InetSocketAddress server, int players, int firstPlayerId, int groupSize, int movesPerSecond) throws IOException {
+        this.server = server;
+        this.players = players;
+        this.firstPlayerId = firstPlayerId;
+        this.groupSize = groupSize;
+        this.movesPerSecond = movesPerSecond;
+        this.channels = new DatagramChannel[players];
+        this.selector = Selector.open();
+        this.lastSeen = new int[players * groupSize];
+        this.lastTick = new int[players];
+        Arrays.fill(lastSeen, -1);
+        Arrays.fill(lastTick, -1);
+        for (int i = 0; i < players; i++) {
+            channels[i] = DatagramChannel.open();
+            channels[i].bind(new InetSocketAddress(0));
+            channels[i].configureBlocking(false);
+            channels[i].register(selector, SelectionKey.OP_READ, i);
+        }
+    }
+
+    public void start() {
+        sender = new Thread(this::sendLoop, "load-udp-sender");
+        receiver = new Thread(this::receiveLoop, "load-udp-receiver");
+        sender.start();
+        receiver.start();
+    }
+
+    public LatencyHistogram latency() {
+        return latency;
+    }
+
+    public long movesSent() {
+        return movesSent.sum();
+    }
+
+    public long sendFailures() {
+        return sendFailures.sum();
+    }
+
+    public long snapshotsReceived() {
+        return snapshotsReceived.sum();
+    }
+
+    // Snapshot ticks that never arrived, from gaps in each client's tick sequence
+    public long snapshotsMissed() {
+        return snapshotsMissed.sum();
+    }
+
+    public long bytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    private void sendLoop() {
+        final var packet = ByteBuffer.allocateDirect(UDPPacket.HEADER_SIZE + PacketView.MOVE_PAYLOAD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        final var period = TimeUnit.SECONDS.toNanos(1) / movesPerSecond;
+        var deadline = System.nanoTime();
+        while (running) {
+            for (int i = 0; i < players && running; i++) {
+                final var code = (int) (System.currentTimeMillis() % LATENCY_WRAP_MILLIS);
+                packet.clear();
+                packet.put(UDPPacket.MOVE)
+                        .putShort((short) (UDPPacket.HEADER_SIZE + PacketView.MOVE_PAYLOAD_SIZE))
+                        .putInt(firstPlayerId + i)
+                        .putFloat(code / 100f)
+                        .putFloat(0f)
+                        .putFloat((i / groupSize) * GROUP_SPACING)
+                        .put((byte) 0)
+                        .flip();
+                try {
+                    if (channels[i].send(packet, server) == 0) {
+                        sendFailures.increment();
+                    } else {
+                        movesSent.increment();
+                    }
+                } catch (IOException e) {
+                    sendFailures.increment();
+                }
+            }
+            deadline += period;
+            final var wait = deadline - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else {
+                // Fell behind, do not try to catch up with a burst
+                deadline = System.nanoTime();
+            }
+        }
+    }
+
+    private void receiveLoop() {
+        final var buffer = ByteBuffer.allocateDirect(65536).order(ByteOrder.LITTLE_ENDIAN);
+        final var bits = new BitReader();
+        final var frame = new SnapshotFrame(256);
+        try {
+            while (running) {
+                selector.select(key -> {
+                    final var observer = (int) key.attachment();
+                    final var channel = (DatagramChannel) key.channel();
+                    try {
+                        while (true) {
+                            buffer.clear();
+                            if (channel.receive(buffer) == null) {
+                                return;
+                            }
+                            buffer.flip();
+                            bytesReceived.add(buffer.remaining());
+                            onDatagram(observer, buffer, bits, frame);
+                        }
+                    } catch (IOException e) {
+                        logger.debug("Receive failed for player {}", observer, e);
+                    }
+                }, 100);
+            }
+        } catch (IOException e) {
+            logger.error("UDP load receive loop failed", e);
+        }
+    }
+
+    private void onDatagram(int observer, ByteBuffer datagram, BitReader bits, SnapshotFrame frame) {
+        if (datagram.remaining() < UDPPacket.HEADER_SIZE) {
+            return;
+        }
+        if (datagram.get(0) != UDPPacket.BATCH) {
+            onMessage(observer, datagram, bits, frame);
+            return;
+        }
+        var offset = UDPPacket.HEADER_SIZE;
+        final var end = datagram.limit();
+        while (offset + UDPPacket.BATCH_FRAME_HEADER_SIZE <= end) {
+            final var length = Short.toUnsignedInt(datagram.getShort(offset));
+            offset += UDPPacket.BATCH_FRAME_HEADER_SIZE;
+            if (offset + length > end) {
+                return;
+            }
+            onMessage(observer, datagram.slice(offset, length).order(ByteOrder.LITTLE_ENDIAN), bits, frame);
+            offset += length;
+        }
+    }
+
+    private void onMessage(int observer, ByteBuffer message, BitReader bits, SnapshotFrame frame) {
+        final var now = System.currentTimeMillis();
+        switch (message.get(0)) {
+            case UDPPacket.DELTA_SNAPSHOT -> {
+                if (UDPPacket.deltaBaselineTick(message) != UDPPacket.NO_BASELINE) {
+                    return;
+                }
+                if (UDPPacket.deltaPart(message) == 0) {
+                    onSnapshotTick(observer, UDPPacket.deltaTick(message));
+                }
+                final var precision = UDPPacket.deltaPrecision(message);
+                frame.reset(UDPPacket.deltaTick(message));
+                UDPPacket.readDeltaSnapshot(message, bits, null, frame);
+                for (int i = 0; i < frame.size(); i++) {
+                    onPosition(observer, frame.playerId(i), UDPPacket.dequantize(frame.x(i), precision), now);
+                }
+            }
+            case UDPPacket.SNAPSHOT -> {
+                onSnapshotTick(observer, UDPPacket.snapshotTick(message));
+                final var count = UDPPacket.snapshotEntityCount(message);
+                for (int i = 0; i < count; i++) {
+                    final var offset = UDPPacket.snapshotEntryOffset(i);
+                    onPosition(observer, message.getInt(offset), message.getFloat(offset + 4), now);
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void onSnapshotTick(int observer, int tick) {
+        snapshotsReceived.increment();
+        final var last = lastTick[observer];
+        if (last >= 0 && tick > last + 1) {
+            snapshotsMissed.add(tick - last - 1);
+        }
+        if (tick > last) {
+            lastTick[observer] = tick;
+        }
+    }
+
+    private void onPosition(int observer, int playerId, float x, long now) {
+        final var index = playerId - firstPlayerId;
+        if (index < 0 || index >= players || index / groupSize != observer / groupSize) {
+            return;
+        }
+        final var code = Math.round(x * 100f) % LATENCY_WRAP_MILLIS;
+        final var seenSlot = observer * groupSize + index % groupSize;
+        if (lastSeen[seenSlot] == code) {
+            return;
+        }
+        lastSeen[seenSlot] = code;
+        latency.record((int) Math.floorMod(now - code, (long) LATENCY_WRAP_MILLIS));
+    }
+
+    @Override
+    public void close() throws Exception {
+        running = false;
+        if (sender != null) {
+            sender.join(2000);
+            receiver.join(2000);
+        }
+        selector.close();
+        for (final var channel : channels) {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+}
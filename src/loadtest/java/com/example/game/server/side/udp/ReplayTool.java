@@ -0,0 +1,100 @@
+package com.example.game.server.side.udp;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Feeds a log recorded with udp.replay-directory back through a server without sockets, as fast as
+// it goes: every inbound packet takes the live routing and packet handling path, in the room it was
+// routed to, and each recorded room tick runs that room's tick at the same point in the stream, so an
+// incident plays out again offline. The rate it gets through the log is a throughput benchmark on
+// real traffic:
+//
+//   mvn -Ploadtest test-compile exec:exec -Dloadtest.main=com.example.game.server.side.udp.ReplayTool \
+//       -Dloadtest.args="--log=replay/20261018-101500"
+//
+// Options (defaults in brackets): --log directory of one recorded run, --receivers receiver threads
+// of the recording server [one per core]. Actions still run on the dispatcher's virtual threads, and
+// session expiry and reliable resends follow the replaying clock, not the recorded one.
+public class ReplayTool {
+
+    public static void main(String[] args) throws Exception {
+        final var options = parse(args);
+        if (!options.containsKey("log")) {
+            throw new IllegalArgumentException("Expected --log=<directory of a recorded run>");
+        }
+        final var properties = new UdpProperties();
+        if (options.containsKey("receivers")) {
+            properties.setReceivers(Integer.parseInt(options.get("receivers")));
+        }
+        final var receivers = properties.resolveReceivers();
+        final var registry = new SimpleMeterRegistry();
+        final var metrics = new UdpMetrics(registry);
+        final var dispatcher = new MessageDispatcher(properties, metrics);
+        final var server = new UdpServer(properties, new PacketTracer(properties), new ReplayRecorder(properties, metrics), metrics,
+                dispatcher, PlayerStateSink.NONE);
+        final var reader = new ReplayLogReader(Path.of(options.get("log")));
+
+        // Recorded room id to the room standing in for it
+        final var rooms = new HashMap<Integer, Room>();
+        rooms.put(UdpServer.DEFAULT_ROOM, server.defaultRoom());
+        final var view = new PacketView();
+        var inbound = 0L;
+        var ticks = 0L;
+        var outbound = 0L;
+        var firstRecord = 0L;
+        var lastRecord = 0L;
+        final var start = System.nanoTime();
+        while (reader.next()) {
+            if (inbound + ticks + outbound == 0) {
+                firstRecord = reader.nanoTime();
+            }
+            lastRecord = reader.nanoTime();
+            final var room = rooms.computeIfAbsent(reader.room(), id -> server.createRoom("replay-" + id, 0, false));
+            switch (reader.kind()) {
+                case ReplayLog.IN -> {
+                    view.wrap(reader.packet());
+                    if (server.roomOf(view.playerId()) != room) {
+                        server.assignPlayer(view.playerId(), room.id());
+                    }
+                    server.onPacket(view, reader.address(), reader.receiver() % receivers);
+                    inbound++;
+                }
+                case ReplayLog.TICK -> {
+                    room.onTick(reader.tick());
+                    ticks++;
+                }
+                case ReplayLog.OUT -> outbound++;
+                default -> throw new IllegalStateException("Unknown replay record kind " + reader.kind());
+            }
+        }
+        final var elapsed = System.nanoTime() - start;
+        dispatcher.close();
+        server.stopUdpServer();
+
+        final var seconds = elapsed / 1e9;
+        final var recordedSeconds = (lastRecord - firstRecord) / 1e9;
+        System.out.printf("Replayed %d segment(s): %d packets in, %d room ticks over %.1f s of recording%n",
+                reader.segmentCount(), inbound, ticks, recordedSeconds);
+        System.out.printf("Queued %d datagrams for clients, %d in the recording%n",
+                (long) registry.get("udp.messages.queued").functionCounter().count(), outbound);
+        System.out.printf("Took %d ms: %.0f packets/s, %.0f ticks/s, %.1fx recorded speed%n",
+                TimeUnit.NANOSECONDS.toMillis(elapsed), inbound / seconds, ticks / seconds,
+                seconds > 0 ? recordedSeconds / seconds : 0);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        final var options = new HashMap<String, String>();
+        for (final var arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            final var separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+}
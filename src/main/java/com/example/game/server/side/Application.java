@@ -2,12 +2,19 @@ package com.example.game.server.side;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 @EnableScheduling
+@EnableCaching
 public class Application {
 
+	// Profile for instances that only serve UDP: no database, STOMP lobby or cluster relay
+	public static final String UDP_ONLY = "udp-only";
+
 	public static void main(String[] args) {
 		SpringApplication.run(Application.class, args);
 	}
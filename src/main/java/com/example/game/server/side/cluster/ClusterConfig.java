@@ -0,0 +1,29 @@
+package com.example.game.server.side.cluster;
+
+import com.example.game.server.side.Application;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.io.IOException;
+import java.util.UUID;
+
+@Configuration
+@Profile("!" + Application.UDP_ONLY)
+public class ClusterConfig {
+
+    @Bean(destroyMethod = "close")
+    public ClusterRelay clusterRelay(ClusterProperties properties) throws IOException {
+        final var nodeId = properties.getNodeId().isBlank()
+                ? UUID.randomUUID().toString().substring(0, 8)
+                : properties.getNodeId();
+        return switch (properties.getMode()) {
+            case LOOPBACK -> new LoopbackRelay(nodeId, new LoopbackRelay.Hub());
+            case SOCKET -> {
+                final var relay = new SocketRelay(nodeId, properties);
+                relay.start();
+                yield relay;
+            }
+        };
+    }
+}
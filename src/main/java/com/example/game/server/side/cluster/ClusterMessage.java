@@ -0,0 +1,72 @@
+package com.example.game.server.side.cluster;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// What nodes tell each other. origin is the publishing node; key, value and payload depend on type:
+//   JOIN   key = session id, value = player id
+//   LEAVE  key = session id
+//   SYNC   payload = every session and player of the origin, replacing what was known about it
+//   TOPIC  key = destination, value = content type, payload = the converted message body
+public record ClusterMessage(Type type, String origin, String key, String value, byte[] payload) {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    public enum Type {
+        HELLO,
+        JOIN,
+        LEAVE,
+        SYNC,
+        TOPIC
+    }
+
+    public static ClusterMessage hello(String origin) {
+        return new ClusterMessage(Type.HELLO, origin, "", "", EMPTY);
+    }
+
+    public static ClusterMessage join(String origin, String sessionId, String playerId) {
+        return new ClusterMessage(Type.JOIN, origin, sessionId, playerId, EMPTY);
+    }
+
+    public static ClusterMessage leave(String origin, String sessionId) {
+        return new ClusterMessage(Type.LEAVE, origin, sessionId, "", EMPTY);
+    }
+
+    public static ClusterMessage sync(String origin, Map<String, String> playersBySession) {
+        final var bytes = new ByteArrayOutputStream();
+        try (final var out = new DataOutputStream(bytes)) {
+            out.writeInt(playersBySession.size());
+            for (final var entry : playersBySession.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeUTF(entry.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new ClusterMessage(Type.SYNC, origin, "", "", bytes.toByteArray());
+    }
+
+    public static ClusterMessage topic(String origin, String destination, String contentType, byte[] payload) {
+        return new ClusterMessage(Type.TOPIC, origin, destination, contentType != null ? contentType : "", payload);
+    }
+
+    // Sessions and players carried by a SYNC message
+    public Map<String, String> players() {
+        try (final var in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            final var count = in.readInt();
+            final var players = new LinkedHashMap<String, String>(count * 2);
+            for (int i = 0; i < count; i++) {
+                players.put(in.readUTF(), in.readUTF());
+            }
+            return players;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.game.server.side.cluster;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "cluster")
+public class ClusterProperties {
+
+    public enum Mode {
+        // Single node, nothing leaves the process
+        LOOPBACK,
+        // Relay over TCP to every node in peers
+        SOCKET
+    }
+
+    private Mode mode = Mode.LOOPBACK;
+    // Unique per node; a random id is generated when empty
+    private String nodeId = "";
+    // TCP port this node accepts relay connections on
+    private int port = 8082;
+    // host:port of the other nodes; listing this node too is harmless
+    private List<String> peers = new ArrayList<>();
+    // Wait between attempts to reach a peer that is down
+    private long reconnectMillis = 1000L;
+    // Messages queued per peer; a peer that falls this far behind is reconnected and resynced
+    private int queueSize = 10000;
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public List<String> getPeers() {
+        return peers;
+    }
+
+    public void setPeers(List<String> peers) {
+        this.peers = peers;
+    }
+
+    public long getReconnectMillis() {
+        return reconnectMillis;
+    }
+
+    public void setReconnectMillis(long reconnectMillis) {
+        this.reconnectMillis = reconnectMillis;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+}
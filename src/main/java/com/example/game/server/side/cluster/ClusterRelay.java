@@ -0,0 +1,35 @@
+package com.example.game.server.side.cluster;
+
+import java.util.List;
+
+// Carries lobby presence and topic messages between the nodes of a cluster, so players connected
+// to different nodes behind a load balancer see each other. Delivery to each node is in publish
+// order; a node that loses its link to another drops everything it learned from it and relies on
+// the sync sent when the link comes back.
+public interface ClusterRelay extends AutoCloseable {
+
+    interface Listener {
+
+        // Called on a relay thread, for messages published by other nodes only
+        void onMessage(ClusterMessage message);
+
+        // The node is gone or unreachable; forget everything it published
+        default void onNodeDown(String nodeId) {
+        }
+
+        // Messages that bring a newly connected node up to date with this one
+        default List<ClusterMessage> syncMessages() {
+            return List.of();
+        }
+    }
+
+    String nodeId();
+
+    // Non-blocking; the message goes to every other node
+    void publish(ClusterMessage message);
+
+    void subscribe(Listener listener);
+
+    @Override
+    void close();
+}
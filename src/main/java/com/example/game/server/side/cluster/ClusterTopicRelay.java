@@ -0,0 +1,69 @@
+package com.example.game.server.side.cluster;
+
+import com.example.game.server.side.Application;
+import com.example.game.server.side.websocket.LobbyState;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+// Makes /topic cluster-wide. Installed on the broker channel (server-side sends) and the client
+// inbound channel (clients sending straight to /topic); every message for a /topic destination is
+// also published to the other nodes, which hand it to their local broker. Relayed messages carry a
+// header so they are not sent around again. Lobby events are excluded: each node derives its own
+// numbered events from cluster presence instead.
+@Component
+@Profile("!" + Application.UDP_ONLY)
+public class ClusterTopicRelay implements ChannelInterceptor, ClusterRelay.Listener {
+
+    private static final String TOPIC_PREFIX = "/topic/";
+    private static final String RELAYED_HEADER = "clusterOrigin";
+
+    private final ClusterRelay relay;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    // The template is lazy: it sends through the broker channel this interceptor is installed on
+    public ClusterTopicRelay(ClusterRelay relay, @Lazy SimpMessagingTemplate messagingTemplate) {
+        this.relay = relay;
+        this.messagingTemplate = messagingTemplate;
+        relay.subscribe(this);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        final var headers = SimpMessageHeaderAccessor.wrap(message);
+        final var destination = headers.getDestination();
+        if (headers.getMessageType() == SimpMessageType.MESSAGE
+                && destination != null
+                && destination.startsWith(TOPIC_PREFIX)
+                && !destination.equals(LobbyState.EVENTS_DESTINATION)
+                && headers.getHeader(RELAYED_HEADER) == null
+                && message.getPayload() instanceof byte[] payload) {
+            final var contentType = headers.getContentType();
+            relay.publish(ClusterMessage.topic(relay.nodeId(), destination, contentType != null ? contentType.toString() : null, payload));
+        }
+        return message;
+    }
+
+    @Override
+    public void onMessage(ClusterMessage message) {
+        if (message.type() != ClusterMessage.Type.TOPIC) {
+            return;
+        }
+        final var headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setDestination(message.key());
+        if (!message.value().isEmpty()) {
+            headers.setContentType(MimeType.valueOf(message.value()));
+        }
+        headers.setHeader(RELAYED_HEADER, message.origin());
+        headers.setLeaveMutable(true);
+        messagingTemplate.send(message.key(), MessageBuilder.createMessage(message.payload(), headers.getMessageHeaders()));
+    }
+}
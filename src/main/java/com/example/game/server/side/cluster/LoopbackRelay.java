@@ -0,0 +1,67 @@
+package com.example.game.server.side.cluster;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// In-process relay. Relays sharing a Hub behave like nodes of one cluster, delivering synchronously
+// on the publishing thread, which makes multi-node behaviour testable without sockets. A relay
+// alone on its hub is a single node and publishing is a no-op.
+public class LoopbackRelay implements ClusterRelay {
+
+    public static class Hub {
+
+        private final List<LoopbackRelay> relays = new CopyOnWriteArrayList<>();
+    }
+
+    private final String nodeId;
+    private final Hub hub;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    public LoopbackRelay(String nodeId, Hub hub) {
+        this.nodeId = nodeId;
+        this.hub = hub;
+        hub.relays.add(this);
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(ClusterMessage message) {
+        for (final var relay : hub.relays) {
+            if (relay != this) {
+                relay.deliver(message);
+            }
+        }
+    }
+
+    // The new listener catches up with the other nodes, and they with it
+    @Override
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+        for (final var relay : hub.relays) {
+            if (relay == this) {
+                continue;
+            }
+            for (final var other : relay.listeners) {
+                other.syncMessages().forEach(listener::onMessage);
+            }
+            listener.syncMessages().forEach(relay::deliver);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (hub.relays.remove(this)) {
+            for (final var relay : hub.relays) {
+                relay.listeners.forEach(listener -> listener.onNodeDown(nodeId));
+            }
+        }
+    }
+
+    private void deliver(ClusterMessage message) {
+        listeners.forEach(listener -> listener.onMessage(message));
+    }
+}
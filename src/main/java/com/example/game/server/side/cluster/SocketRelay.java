@@ -0,0 +1,278 @@
+package com.example.game.server.side.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+// Relay over plain TCP. Every node accepts connections on cluster.port and keeps one outbound
+// connection to each peer, so each direction of a node pair has its own stream and messages arrive
+// in publish order. An outbound connection starts with HELLO and the listeners' sync messages, then
+// streams whatever is published. When the connection from a node drops, the receiving side treats
+// that node as down until it connects again and resyncs.
+//
+// Frames: type u8, origin, key and value as modified UTF-8 (DataOutput.writeUTF), payload length
+// i32 followed by the payload.
+public class SocketRelay implements ClusterRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(SocketRelay.class);
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+    private static final int MAX_PAYLOAD = 16 * 1024 * 1024;
+
+    private final String nodeId;
+    private final ClusterProperties properties;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final List<Link> links = new CopyOnWriteArrayList<>();
+    // Current inbound connection per node, so a stale connection closing after the node reconnected
+    // does not mark it down
+    private final Map<String, Socket> inbound = new ConcurrentHashMap<>();
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private volatile boolean running = true;
+    private ServerSocket serverSocket;
+
+    public SocketRelay(String nodeId, ClusterProperties properties) {
+        this.nodeId = nodeId;
+        this.properties = properties;
+    }
+
+    public void start() throws IOException {
+        serverSocket = new ServerSocket(properties.getPort());
+        Thread.ofVirtual().name("cluster-accept").start(this::acceptLoop);
+        for (final var peer : properties.getPeers()) {
+            if (peer.isBlank()) {
+                continue;
+            }
+            final var separator = peer.lastIndexOf(':');
+            final var address = new InetSocketAddress(peer.substring(0, separator), Integer.parseInt(peer.substring(separator + 1)));
+            if (isSelf(address)) {
+                continue;
+            }
+            Thread.ofVirtual().name("cluster-link-" + peer).start(() -> linkLoop(address));
+        }
+        logger.info("Cluster node {} listening on port {}, peers {}", nodeId, port(), properties.getPeers());
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(ClusterMessage message) {
+        for (final var link : links) {
+            link.offer(message);
+        }
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        closeQuietly(serverSocket);
+        sockets.forEach(SocketRelay::closeQuietly);
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                final var socket = serverSocket.accept();
+                Thread.ofVirtual().name("cluster-in").start(() -> readLoop(socket));
+            } catch (IOException e) {
+                if (running) {
+                    logger.warn("Accepting cluster connection failed", e);
+                }
+            }
+        }
+    }
+
+    private void readLoop(Socket socket) {
+        sockets.add(socket);
+        String origin = null;
+        try (socket; final var in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            final var hello = read(in);
+            if (hello.type() != ClusterMessage.Type.HELLO) {
+                throw new IOException("Expected HELLO, got " + hello.type());
+            }
+            if (hello.origin().equals(nodeId)) {
+                return;
+            }
+            origin = hello.origin();
+            closeQuietly(inbound.put(origin, socket));
+            logger.info("Cluster node {} connected from {}", origin, socket.getRemoteSocketAddress());
+            while (running) {
+                final var message = read(in);
+                for (final var listener : listeners) {
+                    try {
+                        listener.onMessage(message);
+                    } catch (RuntimeException e) {
+                        logger.error("Cluster listener failed on {} from {}", message.type(), message.origin(), e);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                logger.info("Cluster connection from {} closed: {}", origin != null ? origin : socket.getRemoteSocketAddress(), e.toString());
+            }
+        } finally {
+            sockets.remove(socket);
+            if (origin != null && inbound.remove(origin, socket)) {
+                final var down = origin;
+                listeners.forEach(listener -> listener.onNodeDown(down));
+            }
+        }
+    }
+
+    private void linkLoop(InetSocketAddress address) {
+        var up = false;
+        while (running) {
+            final var link = new Link(properties.getQueueSize());
+            try (final var socket = new Socket()) {
+                sockets.add(socket);
+                socket.connect(address, CONNECT_TIMEOUT_MILLIS);
+                socket.setTcpNoDelay(true);
+                final var out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                write(out, ClusterMessage.hello(nodeId));
+                // Registered before the sync is taken, so nothing published in between is missed
+                links.add(link);
+                for (final var listener : listeners) {
+                    for (final var message : listener.syncMessages()) {
+                        write(out, message);
+                    }
+                }
+                out.flush();
+                logger.info("Cluster link to {} up", address);
+                up = true;
+                link.drainTo(out);
+            } catch (IOException e) {
+                if (up && running) {
+                    logger.warn("Cluster link to {} down: {}", address, e.toString());
+                } else {
+                    logger.debug("Cluster peer {} unreachable: {}", address, e.toString());
+                }
+                up = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                links.remove(link);
+                sockets.removeIf(Socket::isClosed);
+            }
+            try {
+                Thread.sleep(properties.getReconnectMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    // Listing this node among its peers is allowed; there is no point connecting to it
+    private boolean isSelf(InetSocketAddress address) {
+        if (address.getPort() != port() || address.isUnresolved()) {
+            return false;
+        }
+        try {
+            final var host = address.getAddress();
+            return host.isLoopbackAddress() || host.isAnyLocalAddress() || NetworkInterface.getByInetAddress(host) != null;
+        } catch (SocketException e) {
+            return false;
+        }
+    }
+
+    private static void write(DataOutputStream out, ClusterMessage message) throws IOException {
+        out.writeByte(message.type().ordinal());
+        out.writeUTF(message.origin());
+        out.writeUTF(message.key());
+        out.writeUTF(message.value());
+        out.writeInt(message.payload().length);
+        out.write(message.payload());
+    }
+
+    private static ClusterMessage read(DataInputStream in) throws IOException {
+        final var types = ClusterMessage.Type.values();
+        final var type = in.readUnsignedByte();
+        if (type >= types.length) {
+            throw new IOException("Unknown cluster message type " + type);
+        }
+        final var origin = in.readUTF();
+        final var key = in.readUTF();
+        final var value = in.readUTF();
+        final var length = in.readInt();
+        if (length < 0 || length > MAX_PAYLOAD) {
+            throw new IOException("Bad cluster payload length " + length);
+        }
+        final var payload = new byte[length];
+        in.readFully(payload);
+        return new ClusterMessage(types[type], origin, key, value, payload);
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // Closing to unblock or discard; nothing to do
+        }
+    }
+
+    // Outbound queue of one connection. Overflowing it breaks the connection: the peer reconnects and
+    // resyncs rather than silently missing presence changes.
+    private final class Link {
+
+        private final BlockingQueue<ClusterMessage> queue;
+        private volatile boolean overflowed;
+
+        Link(int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        void offer(ClusterMessage message) {
+            if (!queue.offer(message)) {
+                overflowed = true;
+            }
+        }
+
+        void drainTo(DataOutputStream out) throws IOException, InterruptedException {
+            while (running) {
+                var message = queue.poll(1, TimeUnit.SECONDS);
+                if (message == null) {
+                    continue;
+                }
+                do {
+                    write(out, message);
+                } while ((message = queue.poll()) != null);
+                out.flush();
+                if (overflowed) {
+                    throw new IOException("Outbound queue overflowed, peer fell behind");
+                }
+            }
+        }
+    }
+}
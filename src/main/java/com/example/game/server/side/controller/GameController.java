@@ -1,23 +1,31 @@
 package com.example.game.server.side.controller;
 
+import com.example.game.server.side.Application;
 import com.example.game.server.side.model.Player;
 import com.example.game.server.side.service.PlayerService;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
+@Profile("!" + Application.UDP_ONLY)
 @RequestMapping("/api")
 public class GameController {
 
-    private PlayerService playerService;
+    private final PlayerService playerService;
+
+    public GameController(PlayerService playerService) {
+        this.playerService = playerService;
+    }
 
     @GetMapping("/player/{id}")
-    public Player getPlayerInfo(@PathVariable("id") String playerId) {
-        return playerService.getPlayerInfo(playerId);
+    public ResponseEntity<Player> getPlayerInfo(@PathVariable("id") String playerId) {
+        final var player = playerService.getPlayerInfo(playerId);
+        return player != null ? ResponseEntity.ok(player) : ResponseEntity.notFound().build();
     }
 
 //    @PostMapping("/auth/login")
 //    public ResponseEntity<?> loginPlayer(@RequestBody LoginRequest loginRequest) {
 //        // Handle login
 //    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,41 @@
+package com.example.game.server.side.controller;
+
+import com.example.game.server.side.udp.PacketTracer;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/udp/trace")
+public class PacketTraceController {
+
+    private final PacketTracer packetTracer;
+
+    public PacketTraceController(PacketTracer packetTracer) {
+        this.packetTracer = packetTracer;
+    }
+
+    @GetMapping
+    public Map<String, Object> getTraceSettings() {
+        return Map.of("sampleRate", packetTracer.getSampleRate(), "players", packetTracer.getTracedPlayers());
+    }
+
+    // 0 turns sampling off, 1 traces every packet, N traces one in N
+    @PutMapping("/sample-rate/{rate}")
+    public Map<String, Object> setSampleRate(@PathVariable("rate") int rate) {
+        packetTracer.setSampleRate(rate);
+        return getTraceSettings();
+    }
+
+    @PutMapping("/players/{id}")
+    public Map<String, Object> tracePlayer(@PathVariable("id") int playerId) {
+        packetTracer.tracePlayer(playerId);
+        return getTraceSettings();
+    }
+
+    @DeleteMapping("/players/{id}")
+    public Map<String, Object> untracePlayer(@PathVariable("id") int playerId) {
+        packetTracer.untracePlayer(playerId);
+        return getTraceSettings();
+    }
+}
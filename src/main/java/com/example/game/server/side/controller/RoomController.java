@@ -0,0 +1,59 @@
+package com.example.game.server.side.controller;
+
+import com.example.game.server.side.udp.Room;
+import com.example.game.server.side.udp.UdpServer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/rooms")
+public class RoomController {
+
+    private final UdpServer udpServer;
+
+    public RoomController(UdpServer udpServer) {
+        this.udpServer = udpServer;
+    }
+
+    @GetMapping
+    public List<Map<String, Object>> getRooms() {
+        return udpServer.rooms().stream().map(RoomController::describe).toList();
+    }
+
+    // capacity 0 uses udp.room-capacity
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> createRoom(@RequestParam(required = false) String name,
+                                                          @RequestParam(defaultValue = "0") int capacity) {
+        try {
+            return ResponseEntity.ok(describe(udpServer.createRoom(name, capacity)));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Room 0 is the default room, assigning a player there takes it out of its match
+    @PutMapping("/{id}/players/{playerId}")
+    public ResponseEntity<Map<String, Object>> assignPlayer(@PathVariable("id") int roomId, @PathVariable("playerId") int playerId) {
+        final var room = udpServer.room(roomId);
+        if (room == null) {
+            return ResponseEntity.notFound().build();
+        }
+        udpServer.assignPlayer(playerId, roomId);
+        return ResponseEntity.ok(describe(room));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> closeRoom(@PathVariable("id") int roomId) {
+        if (roomId == UdpServer.DEFAULT_ROOM) {
+            return ResponseEntity.badRequest().build();
+        }
+        return udpServer.closeRoom(roomId) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    private static Map<String, Object> describe(Room room) {
+        return Map.of("id", room.id(), "name", room.name(), "players", room.size(), "capacity", room.capacity());
+    }
+}
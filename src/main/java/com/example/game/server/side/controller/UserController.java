@@ -1,31 +1,48 @@
 package com.example.game.server.side.controller;
 
+import com.example.game.server.side.Application;
 import com.example.game.server.side.database.entity.User;
 import com.example.game.server.side.service.UserService;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
+import java.util.Map;
 
 @RestController
+@Profile("!" + Application.UDP_ONLY)
 public class UserController {
 
-    @Autowired
-    private UserService userService;
+    private final UserService userService;
 
+    public UserController(UserService userService) {
+        this.userService = userService;
+    }
+
+    // Users a page at a time; hasNext tells the client whether to ask for page + 1
     @GetMapping("/users")
-    public List<User> getUsers() {
+    public Map<String, Object> getUsers(@RequestParam(defaultValue = "0") int page,
+                                        @RequestParam(defaultValue = "100") int size) {
+        final var users = userService.getUsers(page, size);
+        return Map.of(
+                "users", users.getContent(),
+                "page", users.getNumber(),
+                "size", users.getSize(),
+                "hasNext", users.hasNext());
+    }
 
-        System.out.println("AGAAGHAGHHAHAA");
-        return null;
-//        return userService.getAllUsers();
+    @GetMapping("/users/{id}")
+    public ResponseEntity<User> getUser(@PathVariable("id") Integer id) {
+        return ResponseEntity.of(userService.getUser(id));
     }
 
     @PostMapping("/users")
     public User addUser(@RequestBody User user) {
         return userService.saveUser(user);
     }
-}
\ No newline at end of file
+}
@@ -1,16 +1,35 @@
 package com.example.game.server.side.controller;
 
+import com.example.game.server.side.Application;
+import com.example.game.server.side.websocket.LobbySnapshot;
+import com.example.game.server.side.websocket.LobbyState;
+import org.springframework.context.annotation.Profile;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.stereotype.Controller;
 
 import java.util.logging.Logger;
 
 @Controller
+@Profile("!" + Application.UDP_ONLY)
 public class WebSocketController {
 
     private static final Logger logger = Logger.getLogger(String.valueOf(WebSocketController.class));
 
+    private final LobbyState lobby;
+
+    public WebSocketController(LobbyState lobby) {
+        this.lobby = lobby;
+    }
+
+    // Full lobby, sent only to the subscriber: subscribe to /topic/lobby-state first, then here, and
+    // apply only events with a sequence above the snapshot's. Resubscribe here after a sequence gap.
+    @SubscribeMapping("/lobby-state")
+    public LobbySnapshot lobbySnapshot() {
+        return lobby.snapshot();
+    }
+
     @MessageMapping("/send")
     @SendTo("/topic/logs")
     public String logAllMessages(String message) {
@@ -0,0 +1,21 @@
+package com.example.game.server.side.database;
+
+import com.example.game.server.side.Application;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+// Hibernate builds the entity manager factory on its own thread while the rest of the context
+// starts. Boot would use applicationTaskExecutor for this, but that backs off as soon as the STOMP
+// broker registers its channel executors.
+@Configuration
+@Profile("!" + Application.UDP_ONLY)
+public class JpaBootstrapConfig {
+
+    @Bean
+    public EntityManagerFactoryBuilderCustomizer jpaBootstrapExecutor() {
+        return builder -> builder.setBootstrapExecutor(new SimpleAsyncTaskExecutor("jpa-bootstrap-"));
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.game.server.side.database;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "persistence")
+public class PersistenceProperties {
+
+    // Pending player state is written at least this often
+    private long flushInterval = 5000L;
+    // Rows per JDBC batch; reaching this many pending players also triggers an early flush
+    private int batchSize = 500;
+
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(long flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+}
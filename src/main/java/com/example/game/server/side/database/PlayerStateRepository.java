@@ -0,0 +1,55 @@
+package com.example.game.server.side.database;
+
+import com.example.game.server.side.Application;
+import com.example.game.server.side.database.entity.PlayerState;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+
+// Plain JDBC rather than JPA: player state is only ever written in bulk, and one batched upsert
+// statement is far cheaper than loading and merging entities.
+@Repository
+@Profile("!" + Application.UDP_ONLY)
+public class PlayerStateRepository {
+
+    private static final String UPSERT = """
+            INSERT INTO tbl_player_state (player_id, x, y, z, facing, last_seen, moves, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, now())
+            ON CONFLICT (player_id) DO UPDATE SET
+                x = EXCLUDED.x, y = EXCLUDED.y, z = EXCLUDED.z, facing = EXCLUDED.facing,
+                last_seen = GREATEST(tbl_player_state.last_seen, EXCLUDED.last_seen),
+                moves = tbl_player_state.moves + EXCLUDED.moves,
+                updated_at = now()
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    // schema.sql runs before the first upsert rather than at startup, which then needs no connection
+    private volatile boolean schemaCreated;
+
+    public PlayerStateRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Upserts every state in JDBC batches of batchSize rows
+    public void upsertAll(Collection<PlayerState> states, int batchSize) {
+        if (!schemaCreated) {
+            // CREATE TABLE IF NOT EXISTS; a failure leaves it to be tried again with the next batch
+            new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(jdbcTemplate.getDataSource());
+            schemaCreated = true;
+        }
+        jdbcTemplate.batchUpdate(UPSERT, states, batchSize, (statement, state) -> {
+            statement.setInt(1, state.getPlayerId());
+            statement.setFloat(2, state.getX());
+            statement.setFloat(3, state.getY());
+            statement.setFloat(4, state.getZ());
+            statement.setShort(5, state.getFacing());
+            statement.setTimestamp(6, new Timestamp(state.getLastSeen()));
+            statement.setLong(7, state.getMoves());
+        });
+    }
+}
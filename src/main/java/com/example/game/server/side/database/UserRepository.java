@@ -1,8 +1,13 @@
 package com.example.game.server.side.database;
 
 import com.example.game.server.side.database.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Integer> {
     // You can define custom queries if needed, or use the built-in ones
+
+    // A page of users without the count query a Page would need
+    Slice<User> findAllBy(Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.example.game.server.side.database.entity;
+
+// Last known position and running stats of a player, as persisted in tbl_player_state. Instances are
+// mutable so repeated updates for the same player can be coalesced into one row before a flush.
+public class PlayerState {
+
+    private int playerId;
+    private float x;
+    private float y;
+    private float z;
+    private byte facing;
+    private long lastSeen;
+    // Moves since the last flush, added to the stored total
+    private long moves;
+
+    public PlayerState(int playerId, float x, float y, float z, byte facing, long lastSeen, long moves) {
+        this.playerId = playerId;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.facing = facing;
+        this.lastSeen = lastSeen;
+        this.moves = moves;
+    }
+
+    // Folds an older pending update into this one: newest position wins, counters add up
+    public PlayerState mergeOlder(PlayerState older) {
+        moves += older.moves;
+        if (older.lastSeen > lastSeen) {
+            lastSeen = older.lastSeen;
+        }
+        return this;
+    }
+
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    public void setPlayerId(int playerId) {
+        this.playerId = playerId;
+    }
+
+    public float getX() {
+        return x;
+    }
+
+    public void setX(float x) {
+        this.x = x;
+    }
+
+    public float getY() {
+        return y;
+    }
+
+    public void setY(float y) {
+        this.y = y;
+    }
+
+    public float getZ() {
+        return z;
+    }
+
+    public void setZ(float z) {
+        this.z = z;
+    }
+
+    public byte getFacing() {
+        return facing;
+    }
+
+    public void setFacing(byte facing) {
+        this.facing = facing;
+    }
+
+    public long getLastSeen() {
+        return lastSeen;
+    }
+
+    public void setLastSeen(long lastSeen) {
+        this.lastSeen = lastSeen;
+    }
+
+    public long getMoves() {
+        return moves;
+    }
+
+    public void setMoves(long moves) {
+        this.moves = moves;
+    }
+}
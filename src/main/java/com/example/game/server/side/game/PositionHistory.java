@@ -0,0 +1,162 @@
+package com.example.game.server.side.game;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+// Recent positions of every player, one sample per tick, for lag compensation: an action stamped
+// with the tick the client was looking at is checked against where the other players were then.
+//
+// Each player owns a fixed run of 'length' entries in flat primitive arrays used as a ring, so memory
+// is fixed and neither recording nor lookup allocates. One thread records (the tick); any number of
+// threads may look up concurrently. Readers see a player's ring consistently through a per-player
+// sequence lock: the writer makes the version odd while it writes, readers retry if it was odd or
+// moved while they read.
+public class PositionHistory {
+
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final int length;
+    private final int mask;
+    private final int[] owners;
+    private final int[] newest;
+    private final int[] counts;
+    private final int[] versions;
+    private final int[] ticks;
+    private final float[] xs;
+    private final float[] ys;
+    private final float[] zs;
+
+    public PositionHistory(int players, int length) {
+        if (Integer.bitCount(length) != 1) {
+            throw new IllegalArgumentException("History length must be a power of two: " + length);
+        }
+        this.length = length;
+        this.mask = length - 1;
+        this.owners = new int[players];
+        this.newest = new int[players];
+        this.counts = new int[players];
+        this.versions = new int[players];
+        this.ticks = new int[players * length];
+        this.xs = new float[players * length];
+        this.ys = new float[players * length];
+        this.zs = new float[players * length];
+    }
+
+    // Tick thread only. Ticks must increase per player; a different owner starts a fresh history.
+    public void record(int player, int owner, int tick, float x, float y, float z) {
+        final var version = (int) INTS.getOpaque(versions, player);
+        INTS.setOpaque(versions, player, version + 1);
+        VarHandle.storeStoreFence();
+
+        if (owners[player] != owner) {
+            owners[player] = owner;
+            counts[player] = 0;
+        }
+        final var next = (newest[player] + 1) & mask;
+        final var index = player * length + next;
+        ticks[index] = tick;
+        xs[index] = x;
+        ys[index] = y;
+        zs[index] = z;
+        newest[player] = next;
+        if (counts[player] < length) {
+            counts[player]++;
+        }
+
+        INTS.setRelease(versions, player, version + 2);
+    }
+
+    // Tick thread only. Drops the player's samples, so whoever holds the slot next starts afresh even
+    // with the same owner.
+    public void clear(int player) {
+        if (counts[player] == 0) {
+            return;
+        }
+        final var version = (int) INTS.getOpaque(versions, player);
+        INTS.setOpaque(versions, player, version + 1);
+        VarHandle.storeStoreFence();
+        counts[player] = 0;
+        INTS.setRelease(versions, player, version + 2);
+    }
+
+    // Squared distance from (x, y, z) to the player's position at tick + fraction (0 <= fraction < 1),
+    // interpolated between the samples around it; ticks after the newest sample use the newest
+    // position. Returns -1 if the history does not belong to owner or does not reach back to that tick.
+    public float distanceSquaredAt(int player, int owner, int tick, float fraction, float x, float y, float z) {
+        while (true) {
+            final var version = (int) INTS.getAcquire(versions, player);
+            if ((version & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            final var distance = distanceSquared(player, owner, tick, fraction, x, y, z);
+            VarHandle.loadLoadFence();
+            if ((int) INTS.getOpaque(versions, player) == version) {
+                return distance;
+            }
+        }
+    }
+
+    // Oldest tick still held for the player, or -1 if none
+    public int oldestTick(int player) {
+        while (true) {
+            final var version = (int) INTS.getAcquire(versions, player);
+            final var count = counts[player];
+            final var oldest = count == 0 ? -1 : ticks[player * length + ((newest[player] - count + 1) & mask)];
+            VarHandle.loadLoadFence();
+            if ((version & 1) == 0 && (int) INTS.getOpaque(versions, player) == version) {
+                return oldest;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    public int length() {
+        return length;
+    }
+
+    private float distanceSquared(int player, int owner, int tick, float fraction, float x, float y, float z) {
+        final var age = ageAt(player, owner, tick);
+        if (age < 0) {
+            return -1f;
+        }
+        final var base = player * length;
+        final var head = newest[player];
+        final var before = base + ((head - age) & mask);
+        // The newest sample has nothing after it and holds its position
+        final var after = age == 0 ? before : base + ((head - age + 1) & mask);
+        final var t = age == 0 ? 0f : (tick - ticks[before] + fraction) / (ticks[after] - ticks[before]);
+        final var dx = x - (xs[before] + (xs[after] - xs[before]) * t);
+        final var dy = y - (ys[before] + (ys[after] - ys[before]) * t);
+        final var dz = z - (zs[before] + (zs[after] - zs[before]) * t);
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    // Age (0 = newest) of the newest sample at or before the tick, or -1 if the history does not
+    // belong to owner or does not reach back that far
+    private int ageAt(int player, int owner, int tick) {
+        final var count = counts[player];
+        if (count == 0 || owners[player] != owner) {
+            return -1;
+        }
+        final var base = player * length;
+        final var head = newest[player];
+
+        // Samples are in tick order from oldest to newest
+        var low = 0;
+        var high = count - 1;
+        if (tick < ticks[base + ((head - high) & mask)]) {
+            return -1;
+        }
+        while (low < high) {
+            // Ages: 0 = newest, count - 1 = oldest
+            final var age = (low + high) >>> 1;
+            if (ticks[base + ((head - age) & mask)] <= tick) {
+                high = age;
+            } else {
+                low = age + 1;
+            }
+        }
+        return low;
+    }
+}
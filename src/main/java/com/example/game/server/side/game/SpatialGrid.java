@@ -0,0 +1,156 @@
+package com.example.game.server.side.game;
+
+import java.util.Arrays;
+
+// Uniform hash grid for area-of-interest queries. Entities are identified by the caller's own
+// index (0..n-1) and the whole grid is rebuilt each tick with clear() + insert(); all storage is
+// primitive arrays reused between ticks, so steady-state rebuilds and queries do not allocate.
+public class SpatialGrid {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int COORD_BITS = 21;
+    private static final int COORD_MASK = (1 << COORD_BITS) - 1;
+
+    private final float cellSize;
+
+    // Cell table: open addressing from packed cell coordinates to the first entity in that cell
+    private long[] cellKeys;
+    private int[] cellHeads;
+    private int cellCount;
+
+    // Per entity: next entity in the same cell and the position used for the exact distance check
+    private int[] next;
+    private float[] xs;
+    private float[] ys;
+    private float[] zs;
+
+    public SpatialGrid(float cellSize, int expectedEntities) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+        final var entities = Math.max(16, expectedEntities);
+        next = new int[entities];
+        xs = new float[entities];
+        ys = new float[entities];
+        zs = new float[entities];
+        allocateCells(tableSizeFor(entities));
+    }
+
+    public void clear() {
+        if (cellCount > 0) {
+            Arrays.fill(cellKeys, EMPTY);
+            cellCount = 0;
+        }
+    }
+
+    public void insert(int index, float x, float y, float z) {
+        ensureEntityCapacity(index + 1);
+        xs[index] = x;
+        ys[index] = y;
+        zs[index] = z;
+
+        final var key = cellKey(cell(x), cell(y), cell(z));
+        var slot = findSlot(key);
+        if (cellKeys[slot] == EMPTY) {
+            if ((cellCount + 1) * 2 > cellKeys.length) {
+                rehash(cellKeys.length * 2);
+                slot = findSlot(key);
+            }
+            cellKeys[slot] = key;
+            cellHeads[slot] = -1;
+            cellCount++;
+        }
+        next[index] = cellHeads[slot];
+        cellHeads[slot] = index;
+    }
+
+    // Writes the indices of all entities within radius of the point into out and returns how many
+    // were found. Stops early if out is full.
+    public int query(float x, float y, float z, float radius, int[] out) {
+        final var radiusSquared = radius * radius;
+        final var minX = cell(x - radius);
+        final var maxX = cell(x + radius);
+        final var minY = cell(y - radius);
+        final var maxY = cell(y + radius);
+        final var minZ = cell(z - radius);
+        final var maxZ = cell(z + radius);
+        var found = 0;
+
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cy = minY; cy <= maxY; cy++) {
+                for (int cz = minZ; cz <= maxZ; cz++) {
+                    final var slot = findSlot(cellKey(cx, cy, cz));
+                    if (cellKeys[slot] == EMPTY) {
+                        continue;
+                    }
+                    for (int i = cellHeads[slot]; i >= 0; i = next[i]) {
+                        final var dx = xs[i] - x;
+                        final var dy = ys[i] - y;
+                        final var dz = zs[i] - z;
+                        if (dx * dx + dy * dy + dz * dz <= radiusSquared) {
+                            if (found == out.length) {
+                                return found;
+                            }
+                            out[found++] = i;
+                        }
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private int cell(float coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    // 21 bits per axis covers +-1M cells, far beyond any map we ship
+    private static long cellKey(int cx, int cy, int cz) {
+        return ((long) (cx & COORD_MASK) << (2 * COORD_BITS)) | ((long) (cy & COORD_MASK) << COORD_BITS) | (cz & COORD_MASK);
+    }
+
+    private int findSlot(long key) {
+        final var mask = cellKeys.length - 1;
+        var slot = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+        while (cellKeys[slot] != EMPTY && cellKeys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int newSize) {
+        final var oldKeys = cellKeys;
+        final var oldHeads = cellHeads;
+        allocateCells(newSize);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                final var slot = findSlot(oldKeys[i]);
+                cellKeys[slot] = oldKeys[i];
+                cellHeads[slot] = oldHeads[i];
+                cellCount++;
+            }
+        }
+    }
+
+    private void allocateCells(int size) {
+        cellKeys = new long[size];
+        cellHeads = new int[size];
+        cellCount = 0;
+        Arrays.fill(cellKeys, EMPTY);
+    }
+
+    private void ensureEntityCapacity(int capacity) {
+        if (capacity > next.length) {
+            final var newLength = Math.max(capacity, next.length * 2);
+            next = Arrays.copyOf(next, newLength);
+            xs = Arrays.copyOf(xs, newLength);
+            ys = Arrays.copyOf(ys, newLength);
+            zs = Arrays.copyOf(zs, newLength);
+        }
+    }
+
+    private static int tableSizeFor(int entities) {
+        return Integer.highestOneBit(Math.max(16, entities) * 4 - 1) << 1;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.game.server.side.game;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+
+// Fixed-rate server tick. The handler gets the tick number and never runs concurrently with
+// itself, so everything it touches is only ever advanced by one tick at a time. By default the loop
+// owns a dedicated thread; loops given a shared scheduler are periodic tasks on its pool, where
+// consecutive ticks may run on different threads but still one after another.
+public class TickLoop {
+
+    private static final Logger logger = LoggerFactory.getLogger(TickLoop.class);
+
+    private final String name;
+    private final int tickRate;
+    private final LongConsumer handler;
+    private final ScheduledExecutorService sharedExecutor;
+    private ScheduledExecutorService executor;
+    private ScheduledFuture<?> task;
+    private long tick;
+    // Held for the length of each tick, so stop() can wait for the one running
+    private final ReentrantLock tickLock = new ReentrantLock();
+    private volatile boolean stopped;
+
+    public TickLoop(String name, int tickRate, LongConsumer handler) {
+        this(name, tickRate, handler, null);
+    }
+
+    public TickLoop(String name, int tickRate, LongConsumer handler, ScheduledExecutorService sharedExecutor) {
+        if (tickRate <= 0) {
+            throw new IllegalArgumentException("Tick rate must be positive: " + tickRate);
+        }
+        this.name = name;
+        this.tickRate = tickRate;
+        this.handler = handler;
+        this.sharedExecutor = sharedExecutor;
+    }
+
+    public synchronized void start() {
+        if (task != null) {
+            return;
+        }
+        if (sharedExecutor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final var thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        stopped = false;
+        final var periodNanos = TimeUnit.SECONDS.toNanos(1) / tickRate;
+        task = (executor != null ? executor : sharedExecutor)
+                .scheduleAtFixedRate(this::runTick, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+        logger.info("Tick loop {} started at {} Hz", name, tickRate);
+    }
+
+    // Returns once a tick already running has finished, waiting up to a second; no tick starts after
+    public synchronized void stop() {
+        if (task == null) {
+            return;
+        }
+        stopped = true;
+        task.cancel(false);
+        task = null;
+        try {
+            var finished = false;
+            if (executor != null) {
+                // No interrupt: interrupting a tick blocked in a channel send would close the channel
+                executor.shutdown();
+                finished = executor.awaitTermination(1, TimeUnit.SECONDS);
+            } else if (tickLock.tryLock(1, TimeUnit.SECONDS)) {
+                // The shared pool keeps running, so wait for the tick in progress through its lock
+                tickLock.unlock();
+                finished = true;
+            }
+            if (!finished) {
+                logger.warn("Tick loop {} did not finish its last tick in time", name);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor = null;
+        }
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    private void runTick() {
+        tickLock.lock();
+        try {
+            if (!stopped) {
+                handler.accept(++tick);
+            }
+        } catch (RuntimeException e) {
+            // An exception escaping a scheduled task would silently cancel every following tick
+            logger.error("Tick {} of {} failed", tick, name, e);
+        } finally {
+            tickLock.unlock();
+        }
+    }
+}
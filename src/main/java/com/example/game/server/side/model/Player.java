@@ -1,4 +1,31 @@
 package com.example.game.server.side.model;
 
 public class Player {
+
+    private Integer id;
+    private String name;
+
+    public Player() {
+    }
+
+    public Player(Integer id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
 }
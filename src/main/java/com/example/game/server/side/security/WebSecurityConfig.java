@@ -2,6 +2,7 @@ package com.example.game.server.side.security;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -16,11 +17,15 @@ public class WebSecurityConfig {
         http
                 .cors(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(authorize -> authorize
-                        .requestMatchers("/game-websocket/**", "/app/**", "/topic/**", "/users").permitAll() // Allow access to WebSocket paths
+                        .requestMatchers("/game-websocket/**", "/app/**", "/topic/**", "/users", "/users/*").permitAll() // Allow access to WebSocket paths
+                        .requestMatchers("/actuator/health", "/actuator/health/**", "/actuator/prometheus").permitAll() // Probes and metric scrapes
                         .anyRequest().authenticated()
                 )
+                // Admin APIs authenticate with HTTP basic, credentials from spring.security.user.*
+                .httpBasic(Customizer.withDefaults())
                 .csrf(csrf -> csrf
                         .ignoringRequestMatchers("/game-websocket/**", "/users") // Disable CSRF for WebSocket
+                        .ignoringRequestMatchers("/api/udp/trace/**", "/api/rooms/**") // Basic-auth admin APIs, no browser session
                 );
 
         return http.build();
@@ -1,10 +1,31 @@
 package com.example.game.server.side.service;
 
+import com.example.game.server.side.Application;
 import com.example.game.server.side.model.Player;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
 
+@Service
+@Profile("!" + Application.UDP_ONLY)
 public class PlayerServiceImpl implements PlayerService{
+
+    private final UserService userService;
+
+    public PlayerServiceImpl(UserService userService) {
+        this.userService = userService;
+    }
+
+    // Profile of the user behind a player id, through the cached user lookup; null if there is none
     @Override
     public Player getPlayerInfo(String playerId) {
-        return null;
+        final Integer id;
+        try {
+            id = Integer.valueOf(playerId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return userService.getUser(id)
+                .map(user -> new Player(user.getId(), user.getName()))
+                .orElse(null);
     }
 }
@@ -0,0 +1,106 @@
+package com.example.game.server.side.service;
+
+import com.example.game.server.side.Application;
+import com.example.game.server.side.database.PersistenceProperties;
+import com.example.game.server.side.database.PlayerStateRepository;
+import com.example.game.server.side.database.entity.PlayerState;
+import com.example.game.server.side.udp.PlayerStateSink;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Write-behind persistence of player state. The tick stages state here without touching the
+// database; repeated updates for a player coalesce into one pending row, and pending rows are
+// upserted in JDBC batches by a single background writer, on a timer or as soon as a batch worth
+// has piled up. A failed flush puts its rows back (unless newer state arrived) for the next one.
+@Service
+@Profile("!" + Application.UDP_ONLY)
+public class PlayerStateWriteBehind implements PlayerStateSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlayerStateWriteBehind.class);
+
+    private final PlayerStateRepository repository;
+    private final int batchSize;
+    private final Map<Integer, PlayerState> pending = new ConcurrentHashMap<>();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> new Thread(r, "player-state-writer"));
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private volatile boolean closed;
+
+    public PlayerStateWriteBehind(PlayerStateRepository repository, PersistenceProperties properties) {
+        this.repository = repository;
+        this.batchSize = properties.getBatchSize();
+    }
+
+    @Override
+    public void stage(int playerId, float x, float y, float z, byte facing, long lastSeen, int moves) {
+        pending.merge(playerId, new PlayerState(playerId, x, y, z, facing, lastSeen, moves), (older, newer) -> newer.mergeOlder(older));
+        if (pending.size() >= batchSize) {
+            requestFlush();
+        }
+    }
+
+    // Once closed, state staged by a late tick is left for close() to write
+    @Scheduled(fixedDelayString = "${persistence.flush-interval:5000}")
+    public void requestFlush() {
+        if (closed || !flushQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            writer.execute(this::flush);
+        } catch (RejectedExecutionException e) {
+            // Closed since the check above
+            flushQueued.set(false);
+        }
+    }
+
+    public int pending() {
+        return pending.size();
+    }
+
+    // Writer thread only, or the closing thread once the writer has stopped
+    void flush() {
+        flushQueued.set(false);
+        if (pending.isEmpty()) {
+            return;
+        }
+        final var batch = new ArrayList<PlayerState>(pending.size());
+        for (final var playerId : pending.keySet()) {
+            final var state = pending.remove(playerId);
+            if (state != null) {
+                batch.add(state);
+            }
+        }
+        try {
+            repository.upsertAll(batch, batchSize);
+        } catch (RuntimeException e) {
+            logger.error("Failed to persist state of {} players, retrying with the next flush", batch.size(), e);
+            for (final var state : batch) {
+                pending.merge(state.getPlayerId(), state, (newer, older) -> newer.mergeOlder(older));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        closed = true;
+        writer.shutdown();
+        if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+            logger.warn("Player state writer did not finish, {} players not persisted", pending.size());
+            return;
+        }
+        // The final flush runs here, after any flush already queued
+        flush();
+    }
+}
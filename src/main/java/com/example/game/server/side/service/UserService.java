@@ -1,25 +1,47 @@
 package com.example.game.server.side.service;
 
+import com.example.game.server.side.Application;
 import com.example.game.server.side.database.UserRepository;
 import com.example.game.server.side.database.entity.User;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.util.Optional;
 
 @Service
+@Profile("!" + Application.UDP_ONLY)
 public class UserService {
 
-    @Autowired
-    private UserRepository userRepository;
+    public static final String USERS_CACHE = "users";
+    // Upper bound for one page so a client cannot pull the whole table in one request
+    public static final int MAX_PAGE_SIZE = 500;
 
-    // Get all users
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    private final UserRepository userRepository;
+
+    public UserService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    // One page of users in id order
+    public Slice<User> getUsers(int page, int size) {
+        final var pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        return userRepository.findAllBy(PageRequest.of(Math.max(page, 0), pageSize, Sort.by("id")));
+    }
+
+    // Read-through: repeated lookups are served from the users cache until they expire or the user is saved
+    @Cacheable(cacheNames = USERS_CACHE, unless = "#result == null")
+    public Optional<User> getUser(Integer id) {
+        return userRepository.findById(id);
     }
 
-    // Save a new user
+    // Save a new user, replacing any cached copy
+    @CachePut(cacheNames = USERS_CACHE, key = "#result.id")
     public User saveUser(User user) {
         return userRepository.save(user);
     }
-}
\ No newline at end of file
+}
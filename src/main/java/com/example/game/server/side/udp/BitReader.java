@@ -0,0 +1,45 @@
+package com.example.game.server.side.udp;
+
+import java.nio.ByteBuffer;
+
+// Counterpart of BitWriter, reads from the buffer's position up to its limit.
+public class BitReader {
+
+    private ByteBuffer buffer;
+    private long scratch;
+    private int scratchBits;
+
+    public BitReader wrap(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.scratch = 0;
+        this.scratchBits = 0;
+        return this;
+    }
+
+    public int readBits(int bits) {
+        if (bits == 0) {
+            return 0;
+        }
+        while (scratchBits < bits) {
+            scratch |= (buffer.get() & 0xFFL) << scratchBits;
+            scratchBits += 8;
+        }
+        final var value = (int) (scratch & (0xFFFFFFFFL >>> (32 - bits)));
+        scratch >>>= bits;
+        scratchBits -= bits;
+        return value;
+    }
+
+    public boolean readBoolean() {
+        return readBits(1) != 0;
+    }
+
+    public int readVarUnsigned() {
+        return readBits(readBits(6));
+    }
+
+    public int readVarSigned() {
+        final var zigzag = readVarUnsigned();
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+}
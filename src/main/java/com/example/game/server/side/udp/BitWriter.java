@@ -0,0 +1,57 @@
+package com.example.game.server.side.udp;
+
+import java.nio.ByteBuffer;
+
+// Packs values LSB-first into a ByteBuffer. Reusable: wrap() a buffer, write, then flush() to
+// emit the last partial byte.
+public class BitWriter {
+
+    private ByteBuffer buffer;
+    private long scratch;
+    private int scratchBits;
+
+    public BitWriter wrap(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.scratch = 0;
+        this.scratchBits = 0;
+        return this;
+    }
+
+    // Writes the low 'bits' bits of value, bits in 0..32
+    public void writeBits(int value, int bits) {
+        if (bits == 0) {
+            return;
+        }
+        scratch |= (value & (0xFFFFFFFFL >>> (32 - bits))) << scratchBits;
+        scratchBits += bits;
+        while (scratchBits >= 8) {
+            buffer.put((byte) scratch);
+            scratch >>>= 8;
+            scratchBits -= 8;
+        }
+    }
+
+    public void writeBoolean(boolean value) {
+        writeBits(value ? 1 : 0, 1);
+    }
+
+    // 6-bit bit length followed by the significant bits, so small values stay small
+    public void writeVarUnsigned(int value) {
+        final var bits = 32 - Integer.numberOfLeadingZeros(value);
+        writeBits(bits, 6);
+        writeBits(value, bits);
+    }
+
+    // Zigzag so small negative deltas are as cheap as small positive ones
+    public void writeVarSigned(int value) {
+        writeVarUnsigned((value << 1) ^ (value >> 31));
+    }
+
+    public void flush() {
+        if (scratchBits > 0) {
+            buffer.put((byte) scratch);
+            scratch = 0;
+            scratchBits = 0;
+        }
+    }
+}
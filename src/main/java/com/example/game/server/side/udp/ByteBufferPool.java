@@ -0,0 +1,44 @@
+package com.example.game.server.side.udp;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ArrayBlockingQueue;
+
+// Fixed set of direct buffers reused by the receive path. ArrayBlockingQueue is array backed,
+// so acquire/release do not allocate once the pool is warm.
+public class ByteBufferPool {
+
+    private final ArrayBlockingQueue<ByteBuffer> buffers;
+    private final int bufferSize;
+
+    public ByteBufferPool(int capacity, int bufferSize) {
+        this.buffers = new ArrayBlockingQueue<>(capacity);
+        this.bufferSize = bufferSize;
+        for (int i = 0; i < capacity; i++) {
+            buffers.offer(allocate());
+        }
+    }
+
+    public ByteBuffer acquire() {
+        final var buffer = buffers.poll();
+        // Pool exhausted (buffers held downstream), fall back to a fresh one rather than stalling ingest
+        return buffer != null ? buffer.clear() : allocate();
+    }
+
+    public void release(ByteBuffer buffer) {
+        // Extra buffers allocated while exhausted are simply dropped when the pool is full again
+        buffers.offer(buffer);
+    }
+
+    public int available() {
+        return buffers.size();
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    private ByteBuffer allocate() {
+        return ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
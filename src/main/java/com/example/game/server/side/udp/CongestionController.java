@@ -0,0 +1,151 @@
+package com.example.game.server.side.udp;
+
+import java.net.InetSocketAddress;
+
+// Snapshot pacing for one client, driven by its snapshot acks. Every snapshot sent is remembered
+// with its send time; an ack for it gives an RTT sample, and a snapshot still unacked when its entry
+// is reused HISTORY snapshots later counts as lost. Loss and the smoothed RTT's rise over the lowest
+// RTT seen (delay building up in a queue somewhere on the path) mark the link as congested.
+//
+// Every ADJUST_EVERY snapshots the controller reacts AIMD-style: when congested it halves the byte
+// budget per snapshot and, once the budget is at its floor, sends snapshots less often; otherwise it
+// first restores the rate and then grows the budget by a fixed step. Clients that never ack (full
+// snapshots need no ack) are left at full rate and budget.
+//
+// Sending and pacing run on the room's tick, acks arrive on the client's receiver thread; all state
+// is guarded by the controller's lock.
+public class CongestionController {
+
+    private static final int HISTORY = 32;
+    private static final int MASK = HISTORY - 1;
+    private static final int ADJUST_EVERY = 8;
+    // Weights of a new sample in the moving averages, as in TCP's RTT estimator
+    private static final float RTT_GAIN = 1 / 8f;
+    private static final float LOSS_GAIN = 1 / 16f;
+    // How fast the lowest RTT follows the smoothed one, so a longer route is not mistaken for a queue
+    private static final float MIN_RTT_DRIFT = 1 / 64f;
+    private static final float LOSS_LIMIT = 0.05f;
+    private static final float QUEUE_DELAY_LIMIT_MILLIS = 100f;
+
+    private final int minBudget;
+    private final int maxBudget;
+    private final int maxInterval;
+
+    // Client this state belongs to; a different one resets it
+    private InetSocketAddress address;
+    private int playerId;
+
+    private final int[] ticks = new int[HISTORY];
+    private final long[] sentAt = new long[HISTORY];
+    private final boolean[] acked = new boolean[HISTORY];
+    private int sent;
+    private boolean acksSeen;
+    private float smoothedRtt;
+    private float minRtt;
+    private float loss;
+    private int sinceAdjust;
+    private int budget;
+    private int interval;
+
+    public CongestionController(int minBudget, int maxBudget, int maxInterval) {
+        this.minBudget = Math.min(minBudget, maxBudget);
+        this.maxBudget = maxBudget;
+        this.maxInterval = Math.max(1, maxInterval);
+        reset();
+    }
+
+    // Called before any other use for a client; state left by a previous client of the slot is dropped
+    public synchronized void bind(InetSocketAddress address, int playerId) {
+        if (playerId == this.playerId && (address == this.address || address.equals(this.address))) {
+            return;
+        }
+        this.address = address;
+        this.playerId = playerId;
+        reset();
+    }
+
+    // Whether the client gets a snapshot this tick. phase spreads clients at the same rate over ticks.
+    public synchronized boolean isDue(long tick, int phase) {
+        return interval == 1 || (tick + phase) % interval == 0;
+    }
+
+    public synchronized void onSent(int tick, long now) {
+        final var index = sent & MASK;
+        if (sent >= HISTORY && acksSeen) {
+            loss += ((acked[index] ? 0f : 1f) - loss) * LOSS_GAIN;
+            if (++sinceAdjust == ADJUST_EVERY) {
+                sinceAdjust = 0;
+                adjust();
+            }
+        }
+        ticks[index] = tick;
+        sentAt[index] = now;
+        acked[index] = false;
+        sent++;
+    }
+
+    // Returns the RTT sample in milliseconds, or -1 if the tick is unknown or already acked
+    public synchronized long onAck(int tick, long now) {
+        for (int i = 0; i < HISTORY; i++) {
+            if (ticks[i] == tick && !acked[i] && i < sent) {
+                acked[i] = true;
+                final var rtt = now - sentAt[i];
+                if (!acksSeen) {
+                    acksSeen = true;
+                    smoothedRtt = rtt;
+                    minRtt = rtt;
+                } else {
+                    smoothedRtt += (rtt - smoothedRtt) * RTT_GAIN;
+                    minRtt = Math.min(minRtt, rtt);
+                }
+                return rtt;
+            }
+        }
+        return -1;
+    }
+
+    // Bytes of snapshot the client should get per tick it is due
+    public synchronized int budget() {
+        return budget;
+    }
+
+    // Ticks between snapshots, 1 = every tick
+    public synchronized int interval() {
+        return interval;
+    }
+
+    public synchronized float smoothedRtt() {
+        return smoothedRtt;
+    }
+
+    public synchronized float loss() {
+        return loss;
+    }
+
+    private void adjust() {
+        final var congested = loss > LOSS_LIMIT || smoothedRtt - minRtt > QUEUE_DELAY_LIMIT_MILLIS;
+        if (congested) {
+            if (budget > minBudget) {
+                budget = Math.max(minBudget, budget / 2);
+            } else if (interval < maxInterval) {
+                interval++;
+            }
+        } else if (interval > 1) {
+            interval--;
+        } else {
+            budget = Math.min(maxBudget, budget + Math.max(1, maxBudget / 8));
+        }
+        minRtt += (smoothedRtt - minRtt) * MIN_RTT_DRIFT;
+    }
+
+    private void reset() {
+        sent = 0;
+        acksSeen = false;
+        smoothedRtt = 0f;
+        minRtt = 0f;
+        loss = 0f;
+        sinceAdjust = 0;
+        budget = maxBudget;
+        interval = 1;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.game.server.side.udp;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.net.InetSocketAddress;
+
+// Single-producer/single-consumer ring of decoded movement input, one per receiver thread, drained
+// by the tick. Entries are preallocated parallel arrays, so queueing a move is a handful of array
+// stores and one release write of the producer sequence; no object is created per message.
+//
+// As in the Disruptor, each side owns one sequence and only reads the other's: the producer publishes
+// with a release store after filling the entry, the consumer frees entries the same way after
+// reading them. The producer caches the consumer's sequence and only re-reads it when the ring looks
+// full. A full ring rejects the move: input is last-state, the next move supersedes it anyway.
+public class InputRing {
+
+    @FunctionalInterface
+    public interface MoveConsumer {
+        void onMove(int slot, InetSocketAddress address, int playerId, float x, float y, float z, byte facing);
+    }
+
+    private static final VarHandle PRODUCED;
+    private static final VarHandle CONSUMED;
+
+    static {
+        try {
+            final var lookup = MethodHandles.lookup();
+            PRODUCED = lookup.findVarHandle(InputRing.class, "produced", long.class);
+            CONSUMED = lookup.findVarHandle(InputRing.class, "consumed", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int mask;
+    private final int[] slots;
+    private final InetSocketAddress[] addresses;
+    private final int[] playerIds;
+    private final float[] xs;
+    private final float[] ys;
+    private final float[] zs;
+    private final byte[] facings;
+
+    // Written by the producer only
+    private long produced;
+    private long cachedConsumed;
+    // Written by the consumer only
+    private long consumed;
+
+    public InputRing(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.slots = new int[capacity];
+        this.addresses = new InetSocketAddress[capacity];
+        this.playerIds = new int[capacity];
+        this.xs = new float[capacity];
+        this.ys = new float[capacity];
+        this.zs = new float[capacity];
+        this.facings = new byte[capacity];
+    }
+
+    // Producer side. Returns false if the ring is full.
+    public boolean offerMove(int slot, InetSocketAddress address, int playerId, float x, float y, float z, byte facing) {
+        final var sequence = produced;
+        if (sequence - cachedConsumed > mask) {
+            cachedConsumed = (long) CONSUMED.getAcquire(this);
+            if (sequence - cachedConsumed > mask) {
+                return false;
+            }
+        }
+        final var index = (int) sequence & mask;
+        slots[index] = slot;
+        addresses[index] = address;
+        playerIds[index] = playerId;
+        xs[index] = x;
+        ys[index] = y;
+        zs[index] = z;
+        facings[index] = facing;
+        PRODUCED.setRelease(this, sequence + 1);
+        return true;
+    }
+
+    // Consumer side. Hands every published entry to the consumer in order and returns how many.
+    public int drain(MoveConsumer consumer) {
+        final var from = consumed;
+        final var to = (long) PRODUCED.getAcquire(this);
+        for (var sequence = from; sequence < to; sequence++) {
+            final var index = (int) sequence & mask;
+            consumer.onMove(slots[index], addresses[index], playerIds[index], xs[index], ys[index], zs[index], facings[index]);
+        }
+        CONSUMED.setRelease(this, to);
+        return (int) (to - from);
+    }
+
+    public int size() {
+        return (int) ((long) PRODUCED.getAcquire(this) - (long) CONSUMED.getAcquire(this));
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
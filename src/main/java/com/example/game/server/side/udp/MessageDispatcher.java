@@ -0,0 +1,152 @@
+package com.example.game.server.side.udp;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Runs game-logic handlers off the receive threads. Messages go to a fixed set of mailboxes by key
+// (the player id); messages for one player run one at a time in arrival order, different mailboxes
+// run in parallel on virtual threads, so a slow handler only delays the players sharing its
+// mailbox. Messages in flight are bounded by a semaphore: when handlers fall behind, the receiver
+// waits up to dispatchBlockMillis for a permit and then drops the message, letting the socket
+// buffer absorb the rest.
+@Component
+public class MessageDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageDispatcher.class);
+
+    @FunctionalInterface
+    public interface MessageHandler {
+        // payload is a little-endian copy the handler may keep
+        void handle(int playerId, ByteBuffer payload);
+    }
+
+    private record Message(MessageHandler handler, int playerId, byte[] payload) {
+    }
+
+    private final MessageHandler[] handlers = new MessageHandler[256];
+    private final Mailbox[] mailboxes;
+    private final Semaphore permits;
+    private final int maxPending;
+    private final long blockNanos;
+    private final UdpMetrics metrics;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public MessageDispatcher(UdpProperties properties, UdpMetrics metrics) {
+        this.metrics = metrics;
+        this.mailboxes = new Mailbox[properties.getMaxSessions()];
+        for (int i = 0; i < mailboxes.length; i++) {
+            mailboxes[i] = new Mailbox();
+        }
+        this.maxPending = properties.getDispatchMaxPending();
+        this.permits = new Semaphore(maxPending);
+        this.blockNanos = TimeUnit.MILLISECONDS.toNanos(properties.getDispatchBlockMillis());
+        metrics.bindDispatcher(this);
+    }
+
+    public void register(byte messageType, MessageHandler handler) {
+        handlers[messageType & 0xFF] = handler;
+    }
+
+    public boolean handles(byte messageType) {
+        return handlers[messageType & 0xFF] != null;
+    }
+
+    // Called on a receive thread. Copies the payload out of the receive buffer and queues it on the
+    // key's mailbox. Returns false if the message was dropped because handlers are saturated or the
+    // dispatcher is closed.
+    public boolean dispatch(int key, PacketView packet) {
+        final var handler = handlers[packet.messageType() & 0xFF];
+        if (executor.isShutdown() || !acquire()) {
+            metrics.dispatchRejected();
+            return false;
+        }
+        final var payload = new byte[packet.payloadLength()];
+        packet.getPayload(payload);
+        if (!mailboxes[Math.floorMod(key, mailboxes.length)].submit(new Message(handler, packet.playerId(), payload))) {
+            // Closed since the check above
+            permits.release();
+            metrics.dispatchRejected();
+            return false;
+        }
+        return true;
+    }
+
+    public int pending() {
+        return maxPending - permits.availablePermits();
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+            logger.warn("Message handlers still running after shutdown, {} messages pending", pending());
+        }
+    }
+
+    private boolean acquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        try {
+            return permits.tryAcquire(blockNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Serial executor for one session: at most one virtual thread drains it at a time
+    private final class Mailbox implements Runnable {
+
+        private final Queue<Message> messages = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        // False if the executor is shut down and the message was not queued
+        boolean submit(Message message) {
+            messages.add(message);
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    messages.remove(message);
+                    scheduled.set(false);
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void run() {
+            do {
+                Message message;
+                while ((message = messages.poll()) != null) {
+                    final var start = System.nanoTime();
+                    try {
+                        message.handler().handle(message.playerId(), ByteBuffer.wrap(message.payload()).order(ByteOrder.LITTLE_ENDIAN));
+                    } catch (RuntimeException e) {
+                        logger.error("Handler failed for player {}", message.playerId(), e);
+                    } finally {
+                        permits.release();
+                        metrics.messageHandled(System.nanoTime() - start);
+                    }
+                }
+                scheduled.set(false);
+                // A message added between the last poll and the reset would otherwise sit unscheduled
+            } while (!messages.isEmpty() && scheduled.compareAndSet(false, true));
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.game.server.side.udp;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+
+// Bounded per-destination send queue. Messages are copied in as they are produced and coalesced:
+// while the newest pending datagram has room, further messages are appended to it as
+// [length (2)][message] frames, and a datagram that ends up holding several is sent as one BATCH
+// packet (a lone message goes out unchanged). flush() sends on a non-blocking channel and keeps
+// whatever the socket would not take for the next flush. When the queue is full the oldest pending
+// datagram is dropped: for snapshots newer state is worth more than old.
+public class OutboundQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboundQueue.class);
+
+    // Messages too large to frame are stored as is and never share their datagram
+    private static final int RAW = -1;
+    private static final int FIRST_FRAME = UDPPacket.HEADER_SIZE;
+
+    private final int maxDatagramSize;
+    private final ByteBuffer[] datagrams;
+    private final int[] messageCounts;
+    private int head;
+    private int size;
+    private long droppedDatagrams;
+
+    public OutboundQueue(int depth, int maxDatagramSize) {
+        this.maxDatagramSize = maxDatagramSize;
+        this.datagrams = new ByteBuffer[depth];
+        this.messageCounts = new int[depth];
+    }
+
+    // Queues message (position to limit). Returns false if an older datagram had to be dropped.
+    public synchronized boolean enqueue(ByteBuffer message) {
+        final var length = message.remaining();
+        if (length > maxDatagramSize) {
+            throw new IllegalArgumentException("Message of " + length + " bytes exceeds datagram size " + maxDatagramSize);
+        }
+        final var framed = UDPPacket.BATCH_FRAME_HEADER_SIZE + length;
+
+        if (size > 0) {
+            final var tail = (head + size - 1) % datagrams.length;
+            final var tailBuffer = datagrams[tail];
+            if (messageCounts[tail] != RAW && tailBuffer.position() + framed <= maxDatagramSize) {
+                appendFrame(tailBuffer, message, length);
+                messageCounts[tail]++;
+                return true;
+            }
+        }
+
+        var kept = true;
+        if (size == datagrams.length) {
+            head = (head + 1) % datagrams.length;
+            size--;
+            droppedDatagrams++;
+            kept = false;
+        }
+        final var index = (head + size) % datagrams.length;
+        final var buffer = datagram(index);
+        if (FIRST_FRAME + framed <= maxDatagramSize) {
+            buffer.position(FIRST_FRAME);
+            appendFrame(buffer, message, length);
+            messageCounts[index] = 1;
+        } else {
+            buffer.put(message);
+            messageCounts[index] = RAW;
+        }
+        size++;
+        return kept;
+    }
+
+    // Sends pending datagrams until the queue is empty or the socket buffer is full. Returns how
+    // many datagrams went out.
+    public synchronized int flush(DatagramChannel channel, InetSocketAddress address) {
+        var sent = 0;
+        while (size > 0) {
+            final var buffer = datagrams[head];
+            final var end = buffer.position();
+            final var count = messageCounts[head];
+            if (count == RAW) {
+                buffer.flip();
+            } else if (count == 1) {
+                buffer.limit(end).position(FIRST_FRAME + UDPPacket.BATCH_FRAME_HEADER_SIZE);
+            } else {
+                buffer.put(0, UDPPacket.BATCH);
+                buffer.putShort(1, (short) end);
+                buffer.putInt(3, 0);
+                buffer.flip();
+            }
+
+            try {
+                if (channel.send(buffer, address) == 0) {
+                    // Socket buffer full, leave it appendable and retry on the next flush
+                    buffer.limit(buffer.capacity()).position(end);
+                    break;
+                }
+            } catch (IOException e) {
+                logger.error("Failed to send to {} :{}", address, e.getMessage());
+                droppedDatagrams++;
+            }
+            buffer.clear();
+            head = (head + 1) % datagrams.length;
+            size--;
+            sent++;
+        }
+        return sent;
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < size; i++) {
+            datagrams[(head + i) % datagrams.length].clear();
+        }
+        head = 0;
+        size = 0;
+    }
+
+    public synchronized int pending() {
+        return size;
+    }
+
+    public synchronized long droppedDatagrams() {
+        return droppedDatagrams;
+    }
+
+    private static void appendFrame(ByteBuffer buffer, ByteBuffer message, int length) {
+        buffer.putShort((short) length);
+        buffer.put(message);
+    }
+
+    private ByteBuffer datagram(int index) {
+        if (datagrams[index] == null) {
+            datagrams[index] = ByteBuffer.allocateDirect(maxDatagramSize).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return datagrams[index].clear();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.game.server.side.udp;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Per-packet tracing for the UDP hot path. Off by default; can sample 1 in N packets and/or trace
+// selected players, both switchable at runtime (see PacketTraceController). Callers check
+// shouldTrace() first, so when tracing is off nothing is formatted or boxed. Output goes to the
+// "udp.packet-trace" logger, which logback-spring.xml routes through a non-blocking async appender.
+@Component
+public class PacketTracer {
+
+    private static final Logger traceLog = LoggerFactory.getLogger("udp.packet-trace");
+
+    // 0 = no sampling, 1 = every packet, N = one in N packets
+    private volatile int sampleRate;
+    // Sorted, replaced as a whole on change so readers never lock
+    private volatile int[] tracedPlayers = new int[0];
+
+    public PacketTracer(UdpProperties properties) {
+        setSampleRate(properties.getTraceSampleRate());
+        for (final var playerId : properties.getTracePlayers()) {
+            tracePlayer(playerId);
+        }
+    }
+
+    public boolean shouldTrace(int playerId) {
+        final var rate = sampleRate;
+        final var players = tracedPlayers;
+        if (players.length > 0 && Arrays.binarySearch(players, playerId) >= 0) {
+            return true;
+        }
+        return rate == 1 || (rate > 1 && ThreadLocalRandom.current().nextInt(rate) == 0);
+    }
+
+    public void traceInbound(PacketView packet, InetSocketAddress sender) {
+        if (packet.messageType() == UDPPacket.MOVE && packet.payloadLength() >= PacketView.MOVE_PAYLOAD_SIZE) {
+            traceLog.info("IN  {} player={} type={} length={} x={} y={} z={} facing={}", sender, packet.playerId(),
+                    packet.messageType(), packet.packetLength(), packet.x(), packet.y(), packet.z(), packet.facing());
+        } else {
+            traceLog.info("IN  {} player={} type={} length={} bytes={}", sender, packet.playerId(), packet.messageType(),
+                    packet.packetLength(), hex(packet.buffer(), packet.length()));
+        }
+    }
+
+    public void traceOutbound(ByteBuffer datagram, InetSocketAddress destination, int playerId) {
+        traceLog.info("OUT {} player={} type={} length={}", destination, playerId, datagram.get(0), datagram.remaining());
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(int sampleRate) {
+        if (sampleRate < 0) {
+            throw new IllegalArgumentException("Sample rate must not be negative: " + sampleRate);
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    public int[] getTracedPlayers() {
+        return tracedPlayers.clone();
+    }
+
+    public synchronized void tracePlayer(int playerId) {
+        final var players = tracedPlayers;
+        final var index = Arrays.binarySearch(players, playerId);
+        if (index < 0) {
+            final var insertAt = -index - 1;
+            final var updated = new int[players.length + 1];
+            System.arraycopy(players, 0, updated, 0, insertAt);
+            updated[insertAt] = playerId;
+            System.arraycopy(players, insertAt, updated, insertAt + 1, players.length - insertAt);
+            tracedPlayers = updated;
+        }
+    }
+
+    public synchronized void untracePlayer(int playerId) {
+        final var players = tracedPlayers;
+        final var index = Arrays.binarySearch(players, playerId);
+        if (index >= 0) {
+            final var updated = new int[players.length - 1];
+            System.arraycopy(players, 0, updated, 0, index);
+            System.arraycopy(players, index + 1, updated, index, players.length - index - 1);
+            tracedPlayers = updated;
+        }
+    }
+
+    private static String hex(ByteBuffer buffer, int length) {
+        final var builder = new StringBuilder(length * 2);
+        for (int i = 0; i < length; i++) {
+            builder.append(Character.forDigit((buffer.get(i) >> 4) & 0xF, 16)).append(Character.forDigit(buffer.get(i) & 0xF, 16));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.game.server.side.udp;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Flyweight over a received datagram: header fields and payload are read by offset straight from the
+// receive buffer, nothing is copied. One view per receiver thread, re-pointed with wrap() for every
+// packet and only valid until the handler returns the buffer to the pool.
+public class PacketView {
+
+    // Vector3 (3 x 4 bytes) + facing
+    public static final int MOVE_PAYLOAD_SIZE = 13;
+
+    private ByteBuffer buffer;
+    private int offset;
+    private int length;
+
+    public PacketView wrap(ByteBuffer datagram) {
+        return wrap(datagram, 0, datagram.limit());
+    }
+
+    // A packet inside a larger buffer, e.g. the message carried by a RELIABLE packet
+    public PacketView wrap(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    // Header present and the declared length fits in what was actually received
+    public boolean isValid() {
+        if (length < UDPPacket.HEADER_SIZE) {
+            return false;
+        }
+        final var declared = packetLength();
+        return declared >= UDPPacket.HEADER_SIZE && declared <= length;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public byte messageType() {
+        return buffer.get(offset);
+    }
+
+    public short packetLength() {
+        return buffer.getShort(offset + 1);
+    }
+
+    public int playerId() {
+        return buffer.getInt(offset + 3);
+    }
+
+    public int payloadLength() {
+        return packetLength() - UDPPacket.HEADER_SIZE;
+    }
+
+    public byte payloadByte(int offset) {
+        return buffer.get(this.offset + UDPPacket.HEADER_SIZE + offset);
+    }
+
+    public int payloadUnsignedShort(int offset) {
+        return Short.toUnsignedInt(buffer.getShort(this.offset + UDPPacket.HEADER_SIZE + offset));
+    }
+
+    public int payloadInt(int offset) {
+        return buffer.getInt(this.offset + UDPPacket.HEADER_SIZE + offset);
+    }
+
+    public float payloadFloat(int offset) {
+        return buffer.getFloat(this.offset + UDPPacket.HEADER_SIZE + offset);
+    }
+
+    // Bulk copy of the first target.length payload bytes
+    public void getPayload(byte[] target) {
+        buffer.get(offset + UDPPacket.HEADER_SIZE, target);
+    }
+
+    // Movement payload accessors
+    public float x() {
+        return payloadFloat(0);
+    }
+
+    public float y() {
+        return payloadFloat(4);
+    }
+
+    public float z() {
+        return payloadFloat(8);
+    }
+
+    public byte facing() {
+        return payloadByte(12);
+    }
+
+    // Raw datagram, e.g. to forward it unchanged; position/limit must be restored by the caller.
+    // The packet starts at offset().
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    public int offset() {
+        return offset;
+    }
+}
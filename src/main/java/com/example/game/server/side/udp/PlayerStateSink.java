@@ -0,0 +1,12 @@
+package com.example.game.server.side.udp;
+
+// Where the tick hands player state for persistence. Implementations must not block: this is
+// called on the tick thread.
+@FunctionalInterface
+public interface PlayerStateSink {
+
+    PlayerStateSink NONE = (playerId, x, y, z, facing, lastSeen, moves) -> {
+    };
+
+    void stage(int playerId, float x, float y, float z, byte facing, long lastSeen, int moves);
+}
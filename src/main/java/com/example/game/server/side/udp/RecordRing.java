@@ -0,0 +1,139 @@
+package com.example.game.server.side.udp;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.net.Inet4Address;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Single-producer/single-consumer ring of variable-length replay records in one direct buffer, one
+// per producer (a receiver thread or a room's tick), drained by the replay recorder's thread. The
+// sequences work as in InputRing; a record that would wrap leaves a padding marker and starts over at
+// the front, so every record is contiguous and the recorder copies it to the log in one piece.
+// Records are laid out exactly as in the log (see ReplayLog). A full ring drops the record: the live
+// path never waits for the recorder.
+public class RecordRing {
+
+    private static final VarHandle PRODUCED;
+    private static final VarHandle CONSUMED;
+
+    static {
+        try {
+            final var lookup = MethodHandles.lookup();
+            PRODUCED = lookup.findVarHandle(RecordRing.class, "produced", long.class);
+            CONSUMED = lookup.findVarHandle(RecordRing.class, "consumed", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final int PADDING = -1;
+    public static final long EMPTY = Long.MIN_VALUE;
+
+    private final String name;
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private final int mask;
+
+    // Written by the producer only
+    private long produced;
+    private long cachedConsumed;
+    // Written by the consumer only
+    private long consumed;
+    private long cachedProduced;
+    // Time of the record at the head, for the recorder's merge
+    long headTime = EMPTY;
+    // Set when the producer is gone; the recorder drops the ring once it is drained
+    volatile boolean retired;
+
+    public RecordRing(String name, int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two: " + capacity);
+        }
+        this.name = name;
+        this.buffer = ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    // Producer side: bytes [0, length) of packet. Returns false if the ring is full.
+    public boolean offer(byte kind, int room, int receiver, int tick, InetSocketAddress address, ByteBuffer packet, int length) {
+        final var ip = address != null ? address.getAddress() : null;
+        // Inet4Address's hash code is its address, read without the copy getAddress() makes
+        final var addressLength = ip == null ? 0 : ip instanceof Inet4Address ? 4 : 16;
+        final var size = ReplayLog.RECORD_HEADER_SIZE + addressLength + length;
+        final var aligned = (size + 7) & ~7;
+        var sequence = produced;
+        var offset = (int) sequence & mask;
+        final var tail = capacity - offset;
+        final var needed = aligned > tail ? tail + aligned : aligned;
+        if (sequence + needed - cachedConsumed > capacity) {
+            cachedConsumed = (long) CONSUMED.getAcquire(this);
+            if (sequence + needed - cachedConsumed > capacity) {
+                return false;
+            }
+        }
+        if (aligned > tail) {
+            buffer.putInt(offset, PADDING);
+            sequence += tail;
+            offset = 0;
+        }
+
+        buffer.putInt(offset + ReplayLog.SIZE, size)
+                .put(offset + ReplayLog.KIND, kind)
+                .putInt(offset + ReplayLog.ROOM, room)
+                .putShort(offset + ReplayLog.RECEIVER, (short) receiver)
+                .putInt(offset + ReplayLog.TICK_NUMBER, tick)
+                .putLong(offset + ReplayLog.TIME, System.nanoTime())
+                .putShort(offset + ReplayLog.PORT, (short) (address != null ? address.getPort() : 0))
+                .put(offset + ReplayLog.ADDRESS_LENGTH, (byte) addressLength);
+        final var addressAt = offset + ReplayLog.RECORD_HEADER_SIZE;
+        if (addressLength == 4) {
+            // Network byte order, like getAddress()
+            buffer.putInt(addressAt, Integer.reverseBytes(ip.hashCode()));
+        } else if (addressLength == 16) {
+            buffer.put(addressAt, ip.getAddress());
+        }
+        buffer.put(addressAt + addressLength, packet, 0, length);
+        PRODUCED.setRelease(this, sequence + aligned);
+        return true;
+    }
+
+    // Consumer side. Time of the next record, or EMPTY if nothing is published; also kept in headTime.
+    public long peek() {
+        while (true) {
+            if (consumed == cachedProduced) {
+                cachedProduced = (long) PRODUCED.getAcquire(this);
+                if (consumed == cachedProduced) {
+                    return headTime = EMPTY;
+                }
+            }
+            final var offset = (int) consumed & mask;
+            if (buffer.getInt(offset) != PADDING) {
+                return headTime = buffer.getLong(offset + ReplayLog.TIME);
+            }
+            consumed += capacity - offset;
+            CONSUMED.setRelease(this, consumed);
+        }
+    }
+
+    // Consumer side, after peek() found a record: its size in bytes
+    public int headSize() {
+        return buffer.getInt((int) consumed & mask);
+    }
+
+    // Consumer side, after peek() found a record: copies it to target's position and frees it
+    public void take(ByteBuffer target) {
+        final var offset = (int) consumed & mask;
+        final var size = buffer.getInt(offset);
+        target.put(target.position(), buffer, offset, size);
+        target.position(target.position() + size);
+        consumed += (size + 7) & ~7;
+        CONSUMED.setRelease(this, consumed);
+    }
+}
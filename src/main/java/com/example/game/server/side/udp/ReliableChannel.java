@@ -0,0 +1,237 @@
+package com.example.game.server.side.udp;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Reliable-ordered stream in both directions between the server and one client, carried in
+// RELIABLE packets beside the unreliable movement and snapshot traffic, so a lost action costs one
+// resend instead of stalling anything else.
+//
+// Each side numbers its messages with 16-bit sequences and acks the other's with the newest sequence
+// received plus a 32-bit field for the 32 before it, so one ack covers many packets and a lost ack
+// is repaired by the next. Received messages are delivered in sequence order: one that arrives
+// early is copied and held until the gap before it is filled, at most WINDOW ahead. Sent messages
+// are kept until acked and only those are resent, each at most once per resend interval.
+//
+// Receiving runs on the client's receiver thread, sending on any thread and acks and resends on
+// the room's tick; all state is guarded by the channel's lock. Messages are handed to delivery after
+// that lock is released, so a handler that blocks never holds up the tick; a separate delivery lock
+// keeps them in order. The lock-free flags only let the tick skip idle channels.
+public class ReliableChannel {
+
+    public static final int WINDOW = 32;
+    private static final int MASK = WINDOW - 1;
+
+    @FunctionalInterface
+    public interface Delivery {
+        // The message is the complete packet in bytes [offset, offset + length) of buffer, valid only
+        // for the duration of the call
+        void deliver(ByteBuffer buffer, int offset, int length);
+    }
+
+    // Client this state belongs to; a different one resets it
+    private InetSocketAddress address;
+    private int playerId;
+
+    // Receiving
+    private int nextExpected;
+    private boolean anyReceived;
+    private int newestReceived;
+    private int receivedBits;
+    private volatile boolean ackDue;
+    private final byte[][] early = new byte[WINDOW][];
+    // Held across a whole receive, deliveries included; ready holds the messages it took out of
+    // early until they are delivered
+    private final ReentrantLock deliveryLock = new ReentrantLock();
+    private final byte[][] ready = new byte[WINDOW][];
+
+    // Sending
+    private int nextSequence;
+    private final ByteBuffer[] unacked = new ByteBuffer[WINDOW];
+    private final long[] sentAt = new long[WINDOW];
+    private volatile int unackedCount;
+
+    // Called before any other use for a client; state left by a previous client of the slot is dropped
+    public synchronized void bind(InetSocketAddress address, int playerId) {
+        if (playerId == this.playerId && address.equals(this.address)) {
+            return;
+        }
+        this.address = address;
+        this.playerId = playerId;
+        nextExpected = 0;
+        anyReceived = false;
+        newestReceived = 0;
+        receivedBits = 0;
+        ackDue = false;
+        Arrays.fill(early, null);
+        nextSequence = 0;
+        Arrays.fill(unacked, null);
+        unackedCount = 0;
+    }
+
+    public synchronized boolean isBoundTo(InetSocketAddress address) {
+        return address != null && address.equals(this.address);
+    }
+
+    // Hands the message (bytes [offset, offset + length) of buffer) and any held messages it unblocks
+    // to delivery, in sequence order and outside the channel's lock. Returns how many were delivered;
+    // duplicates and messages too far ahead are dropped.
+    public int receive(int sequence, ByteBuffer buffer, int offset, int length, Delivery delivery) {
+        deliveryLock.lock();
+        try {
+            final var readyCount = advance(sequence, buffer, offset, length);
+            if (readyCount < 0) {
+                return 0;
+            }
+            delivery.deliver(buffer, offset, length);
+            for (int i = 0; i < readyCount; i++) {
+                final var held = ready[i];
+                ready[i] = null;
+                delivery.deliver(ByteBuffer.wrap(held).order(ByteOrder.LITTLE_ENDIAN), 0, held.length);
+            }
+            return readyCount + 1;
+        } finally {
+            deliveryLock.unlock();
+        }
+    }
+
+    // Moves the window past the message and takes out the held messages that follow it into ready.
+    // Returns how many were taken, or -1 if the message is not to be delivered now.
+    private synchronized int advance(int sequence, ByteBuffer buffer, int offset, int length) {
+        ackDue = true;
+        final var distance = (short) (sequence - nextExpected);
+        if (distance < 0 || distance >= WINDOW) {
+            // Already delivered (its ack was lost), or beyond the window and resent later anyway
+            return -1;
+        }
+        recordReceived(sequence);
+        if (distance > 0) {
+            final var index = sequence & MASK;
+            if (early[index] == null) {
+                final var copy = new byte[length];
+                buffer.get(offset, copy);
+                early[index] = copy;
+            }
+            return -1;
+        }
+        nextExpected = (nextExpected + 1) & 0xFFFF;
+        var readyCount = 0;
+        byte[] held;
+        while ((held = early[nextExpected & MASK]) != null) {
+            early[nextExpected & MASK] = null;
+            ready[readyCount++] = held;
+            nextExpected = (nextExpected + 1) & 0xFFFF;
+        }
+        return readyCount;
+    }
+
+    public boolean isAckDue() {
+        return ackDue;
+    }
+
+    // Writes a RELIABLE_ACK packet into buffer (from position 0) and returns true, or returns false if
+    // nothing arrived since the last ack went out
+    public synchronized boolean writeAck(ByteBuffer buffer) {
+        if (!ackDue) {
+            return false;
+        }
+        ackDue = false;
+        buffer.clear();
+        buffer.put(UDPPacket.RELIABLE_ACK).putShort((short) UDPPacket.RELIABLE_ACK_SIZE).putInt(playerId);
+        putAck(buffer);
+        buffer.flip();
+        return true;
+    }
+
+    // Queues message (a complete packet, position to limit) for the client and keeps it until acked.
+    // Returns false, sending nothing, while the message WINDOW sequences back is still unacked: the
+    // window runs from the oldest unacked message, so one lost ack holds back new sends rather than
+    // have its message overwritten and never resent.
+    public synchronized boolean send(ByteBuffer message, long now, OutboundQueue queue) {
+        if (unacked[nextSequence & MASK] != null) {
+            return false;
+        }
+        final var sequence = nextSequence;
+        nextSequence = (nextSequence + 1) & 0xFFFF;
+        final var length = UDPPacket.RELIABLE_HEADER_SIZE + message.remaining();
+        final var packet = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        packet.put(UDPPacket.RELIABLE).putShort((short) length).putInt(playerId).putShort((short) sequence);
+        putAck(packet);
+        packet.put(message.duplicate()).flip();
+        final var index = sequence & MASK;
+        unacked[index] = packet;
+        sentAt[index] = now;
+        unackedCount++;
+        // The packet carries the current acks, nothing else needs to go out for them
+        ackDue = false;
+        queue.enqueue(packet.duplicate());
+        return true;
+    }
+
+    public synchronized void acknowledge(int ack, int ackBits) {
+        if (unackedCount == 0) {
+            return;
+        }
+        for (int index = 0; index < WINDOW; index++) {
+            final var packet = unacked[index];
+            if (packet == null) {
+                continue;
+            }
+            final var age = (short) (ack - Short.toUnsignedInt(packet.getShort(UDPPacket.HEADER_SIZE)));
+            if (age == 0 || (age > 0 && age <= WINDOW && (ackBits & (1 << (age - 1))) != 0)) {
+                unacked[index] = null;
+                unackedCount--;
+            }
+        }
+    }
+
+    public boolean hasUnacked() {
+        return unackedCount > 0;
+    }
+
+    // Requeues every message unacked for at least intervalMillis, with fresh acks. Returns how many.
+    public synchronized int resend(long now, long intervalMillis, OutboundQueue queue) {
+        var resent = 0;
+        for (int index = 0; index < WINDOW && unackedCount > 0; index++) {
+            final var packet = unacked[index];
+            if (packet == null || now - sentAt[index] < intervalMillis) {
+                continue;
+            }
+            putAck(packet.position(UDPPacket.HEADER_SIZE + 2));
+            packet.position(0);
+            sentAt[index] = now;
+            queue.enqueue(packet.duplicate());
+            resent++;
+        }
+        if (resent > 0) {
+            ackDue = false;
+        }
+        return resent;
+    }
+
+    // Newest sequence received and the bit field for the WINDOW before it; 0xFFFF with no bits until
+    // anything arrived
+    private void putAck(ByteBuffer buffer) {
+        buffer.putShort((short) (anyReceived ? newestReceived : 0xFFFF)).putInt(anyReceived ? receivedBits : 0);
+    }
+
+    private void recordReceived(int sequence) {
+        if (!anyReceived) {
+            anyReceived = true;
+            newestReceived = sequence;
+            receivedBits = 0;
+            return;
+        }
+        final var ahead = (short) (sequence - newestReceived);
+        if (ahead > 0) {
+            // Bit i stands for newestReceived - 1 - i; the old newest moves to bit ahead - 1
+            receivedBits = ahead > WINDOW ? 0 : (int) (((long) receivedBits << ahead) | (1L << (ahead - 1)));
+            newestReceived = sequence;
+        } else if (ahead < 0 && -ahead <= WINDOW) {
+            receivedBits |= 1 << (-ahead - 1);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.game.server.side.udp;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Append-only replay log: a directory of fixed-size segment files, each mapped into memory and
+// filled front to back, so appending a record is a copy into the page cache with no system call.
+// When a record does not fit in what is left of a segment the next segment is started; the unused
+// tail stays zero, which readers take as the segment's end, as they do for a segment cut short by
+// a crash.
+//
+// Segment: magic, format version, wall-clock millis and System.nanoTime() when it was started (to
+// place record times in the day), then records. Record, little-endian: total size, kind, room id,
+// receiver, tick, nanoTime, client port, address length (0, 4 or 16), address bytes (network order),
+// then the packet as it was received or sent.
+//
+// Only the recorder thread writes.
+public class ReplayLog implements Closeable {
+
+    public static final int MAGIC = 0x474F4C52;
+    public static final int VERSION = 1;
+    public static final int SEGMENT_HEADER_SIZE = 24;
+
+    // Packet from a client, before routing; receiver is the socket it arrived on
+    public static final byte IN = 1;
+    // Datagram queued for a client by a room's tick
+    public static final byte OUT = 2;
+    // Start of a room's tick
+    public static final byte TICK = 3;
+
+    // Field offsets within a record
+    static final int SIZE = 0;
+    static final int KIND = 4;
+    static final int ROOM = 5;
+    static final int RECEIVER = 9;
+    static final int TICK_NUMBER = 11;
+    static final int TIME = 15;
+    static final int PORT = 23;
+    static final int ADDRESS_LENGTH = 25;
+    public static final int RECORD_HEADER_SIZE = 26;
+
+    private final Path directory;
+    private final int segmentSize;
+    private MappedByteBuffer segment;
+    private int segmentNumber;
+
+    public ReplayLog(Path directory, int segmentSize) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        roll();
+    }
+
+    public static String segmentName(int number) {
+        return String.format("segment-%06d.rlog", number);
+    }
+
+    // Moves the ring's head record into the log
+    public void append(RecordRing ring) throws IOException {
+        final var size = ring.headSize();
+        if (size > segment.remaining()) {
+            if (size > segmentSize - SEGMENT_HEADER_SIZE) {
+                throw new IOException("Record of " + size + " bytes does not fit a segment of " + segmentSize);
+            }
+            roll();
+        }
+        ring.take(segment);
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    @Override
+    public void close() {
+        // The mapping itself is released when the buffer is collected
+        if (segment != null) {
+            segment.force();
+            segment = null;
+        }
+    }
+
+    private void roll() throws IOException {
+        if (segment != null) {
+            segment.force();
+        }
+        final var file = directory.resolve(segmentName(segmentNumber++));
+        try (final var channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        segment.order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(MAGIC)
+                .putInt(VERSION)
+                .putLong(System.currentTimeMillis())
+                .putLong(System.nanoTime());
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.game.server.side.udp;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+// Reads a replay log written by ReplayLog record by record, segment after segment. The accessors
+// describe the current record and are valid until the next call to next().
+public class ReplayLogReader {
+
+    private final List<Path> segments;
+    private int nextSegment;
+    private MappedByteBuffer segment;
+    private int record = -1;
+    private long segmentStartMillis;
+
+    public ReplayLogReader(Path directory) throws IOException {
+        try (final var files = Files.list(directory)) {
+            this.segments = files.filter(file -> file.getFileName().toString().endsWith(".rlog")).sorted().toList();
+        }
+        if (segments.isEmpty()) {
+            throw new IOException("No replay segments in " + directory);
+        }
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    // Advances to the next record; false once every segment is read
+    public boolean next() throws IOException {
+        while (true) {
+            if (segment != null && record >= 0) {
+                final var following = record + segment.getInt(record + ReplayLog.SIZE);
+                if (following + ReplayLog.RECORD_HEADER_SIZE <= segment.limit() && segment.getInt(following + ReplayLog.SIZE) > 0) {
+                    record = following;
+                    return true;
+                }
+            } else if (segment != null && segment.limit() >= ReplayLog.SEGMENT_HEADER_SIZE + ReplayLog.RECORD_HEADER_SIZE
+                    && segment.getInt(ReplayLog.SEGMENT_HEADER_SIZE + ReplayLog.SIZE) > 0) {
+                record = ReplayLog.SEGMENT_HEADER_SIZE;
+                return true;
+            }
+            if (nextSegment == segments.size()) {
+                return false;
+            }
+            open(segments.get(nextSegment++));
+        }
+    }
+
+    public byte kind() {
+        return segment.get(record + ReplayLog.KIND);
+    }
+
+    public int room() {
+        return segment.getInt(record + ReplayLog.ROOM);
+    }
+
+    public int receiver() {
+        return Short.toUnsignedInt(segment.getShort(record + ReplayLog.RECEIVER));
+    }
+
+    public int tick() {
+        return segment.getInt(record + ReplayLog.TICK_NUMBER);
+    }
+
+    // System.nanoTime() of the recording process
+    public long nanoTime() {
+        return segment.getLong(record + ReplayLog.TIME);
+    }
+
+    // Wall-clock millis when the current segment was started
+    public long segmentStartMillis() {
+        return segmentStartMillis;
+    }
+
+    public InetSocketAddress address() {
+        final var length = segment.get(record + ReplayLog.ADDRESS_LENGTH);
+        if (length == 0) {
+            return null;
+        }
+        final var bytes = new byte[length];
+        segment.get(record + ReplayLog.RECORD_HEADER_SIZE, bytes);
+        try {
+            return new InetSocketAddress(InetAddress.getByAddress(bytes), Short.toUnsignedInt(segment.getShort(record + ReplayLog.PORT)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Bad address in replay record", e);
+        }
+    }
+
+    // The packet as recorded, position 0 to its length, little-endian
+    public ByteBuffer packet() {
+        final var start = record + ReplayLog.RECORD_HEADER_SIZE + segment.get(record + ReplayLog.ADDRESS_LENGTH);
+        final var end = record + segment.getInt(record + ReplayLog.SIZE);
+        return segment.slice(start, end - start).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private void open(Path file) throws IOException {
+        try (final var channel = FileChannel.open(file)) {
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        segment.order(ByteOrder.LITTLE_ENDIAN);
+        record = -1;
+        if (segment.limit() < ReplayLog.SEGMENT_HEADER_SIZE || segment.getInt(0) != ReplayLog.MAGIC) {
+            throw new IOException("Not a replay segment: " + file);
+        }
+        if (segment.getInt(4) != ReplayLog.VERSION) {
+            throw new IOException("Unsupported replay log version " + segment.getInt(4) + " in " + file);
+        }
+        segmentStartMillis = segment.getLong(8);
+    }
+}
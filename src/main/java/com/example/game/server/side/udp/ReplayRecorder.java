@@ -0,0 +1,139 @@
+package com.example.game.server.side.udp;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Records what the UDP server receives and sends for replay (see ReplayTool). Off unless
+// udp.replay-directory is set; each run then writes a new log in a subdirectory named after its
+// start time. Every receiver and every room tick writes to a ring of its own, so recording costs a
+// packet copy and no lock on the live path; one thread merges the rings in timestamp order into
+// the log. When the recorder falls behind, rings fill up and records are dropped and counted.
+@Component
+public class ReplayRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplayRecorder.class);
+
+    private static final DateTimeFormatter RUN_NAME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final UdpMetrics metrics;
+    private final int ringSize;
+    private final ReplayLog log;
+    private final List<RecordRing> rings = new CopyOnWriteArrayList<>();
+    private final PriorityQueue<RecordRing> merge = new PriorityQueue<>(Comparator.comparingLong(ring -> ring.headTime));
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public ReplayRecorder(UdpProperties properties, UdpMetrics metrics) {
+        this.metrics = metrics;
+        this.ringSize = properties.getReplayRingSize();
+        final var directory = properties.getReplayDirectory();
+        if (directory == null || directory.isBlank()) {
+            this.log = null;
+            this.thread = null;
+            return;
+        }
+        final var runDirectory = Path.of(directory, LocalDateTime.now().format(RUN_NAME));
+        try {
+            this.log = new ReplayLog(runDirectory, properties.getReplaySegmentSize());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create replay log in " + runDirectory, e);
+        }
+        this.thread = new Thread(this::run, "udp-replay-recorder");
+        thread.setDaemon(true);
+        thread.start();
+        logger.info("Recording UDP traffic for replay to {}", log.directory());
+    }
+
+    public boolean isEnabled() {
+        return log != null;
+    }
+
+    // A ring for one producer thread, or null when recording is off
+    public RecordRing ring(String name) {
+        if (log == null) {
+            return null;
+        }
+        final var ring = new RecordRing(name, ringSize);
+        rings.add(ring);
+        return ring;
+    }
+
+    // The producer is done; what it recorded is still written
+    public void release(RecordRing ring) {
+        if (ring != null) {
+            ring.retired = true;
+        }
+    }
+
+    // Producer side; a full ring drops the record
+    public void record(RecordRing ring, byte kind, int room, int receiver, int tick, InetSocketAddress address,
+                       ByteBuffer packet, int length) {
+        if (ring.offer(kind, room, receiver, tick, address, packet, length)) {
+            metrics.replayRecorded();
+        } else {
+            metrics.replayDropped();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        thread.join(5000);
+        log.close();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                if (drain() == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+            // Whatever the producers published before shutdown
+            drain();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Replay recording stopped", e);
+        }
+    }
+
+    // One pass over every ring: records published so far, oldest first across rings
+    private int drain() throws IOException {
+        for (final var ring : rings) {
+            if (ring.peek() != RecordRing.EMPTY) {
+                merge.add(ring);
+            } else if (ring.retired && ring.peek() == RecordRing.EMPTY) {
+                rings.remove(ring);
+            }
+        }
+        var written = 0;
+        RecordRing ring;
+        while ((ring = merge.poll()) != null) {
+            log.append(ring);
+            written++;
+            if (ring.peek() != RecordRing.EMPTY) {
+                merge.add(ring);
+            }
+        }
+        return written;
+    }
+}
@@ -0,0 +1,736 @@
+package com.example.game.server.side.udp;
+
+import com.example.game.server.side.game.PositionHistory;
+import com.example.game.server.side.game.SpatialGrid;
+import com.example.game.server.side.game.TickLoop;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+
+// One match: its own sessions, game state and tick. Rooms share the server's sockets and receiver
+// threads but nothing else, so a busy room only slows its own tick, and each room's tick is a
+// separate task on the shared tick pool that can run on any core. Everything sized by player count
+// is sized by the room's capacity, which keeps small rooms cheap to create.
+public class Room {
+
+    private static final Logger logger = LoggerFactory.getLogger(Room.class);
+
+    // About a second of snapshots at the default tick rate; older acks fall back to a full snapshot
+    private static final int SNAPSHOT_HISTORY_LENGTH = 32;
+    // When a snapshot must be trimmed, players that have not moved for a second rank as if this many
+    // times further away, so the ones whose state actually changed are kept first
+    private static final float IDLE_DISTANCE_FACTOR = 2f;
+
+    private final int id;
+    private final String name;
+    private final SessionTable sessions;
+    private final PacketTracer tracer;
+    private final ReplayRecorder recorder;
+    // Null when replay recording is off
+    private final RecordRing replayRing;
+    private final UdpMetrics metrics;
+    private final MessageDispatcher dispatcher;
+    private final PlayerStateSink stateSink;
+    private final Supplier<DatagramChannel> sendChannel;
+    private final TickLoop tickLoop;
+    private final SessionTable.ExpiryListener expiryListener = this::onSessionExpired;
+    private final InputRing.MoveConsumer moveApplier = this::applyMove;
+    // One per receiver, drained by the tick
+    private final InputRing[] inputRings;
+    // One per receiver, hands reliable messages back to handlePacket
+    private final ReliableDelivery[] reliableDeliveries;
+    private volatile long lastSessionTableFullWarning;
+    private final float interestRadius;
+    private final boolean deltaSnapshots;
+    private final float positionPrecision;
+    private final PositionHistory positionHistory;
+    private final float hitTolerance;
+    // Per slot, bound to whichever client holds the slot
+    private final ReliableChannel[] reliableChannels;
+    private final long reliableResendMillis;
+    // Per slot snapshot pacing, null when congestion control is off
+    private final CongestionController[] congestion;
+    private final int idleTicks;
+    // Newest tick recorded in positionHistory, read by action handlers
+    private volatile int currentTick;
+    // Only touched by the tick
+    private final ByteBuffer snapshotBuffer;
+    private final BitWriter snapshotBits = new BitWriter();
+    private final ByteBuffer ackBuffer = ByteBuffer.allocateDirect(UDPPacket.RELIABLE_ACK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final SpatialGrid spatialGrid;
+    private int[] tickSlots = new int[64];
+    private int[] interestResults = new int[64];
+    private int[] positionedPlayers = new int[64];
+    private long[] sortKeys = new long[64];
+    private int positionedCount;
+    private int messagesQueuedThisTick;
+    private int tickInProgress;
+    // Tick each slot's position last changed, for snapshot priority
+    private final int[] lastMovedTicks;
+    // Moving average of encoded snapshot bytes per player, turns a client's byte budget into a player count
+    private float bytesPerEntity = UDPPacket.SNAPSHOT_ENTRY_SIZE;
+    // Moves applied per slot since state was last staged for persistence, and whose they were
+    private final int[] movesSinceStaged;
+    private final int[] stagedPlayers;
+    private final int stageEveryTicks;
+
+    // A null tick executor gives the room a tick thread of its own
+    public Room(int id, String name, int capacity, int inputRingSize, int receivers, UdpProperties properties,
+                PacketTracer tracer, ReplayRecorder recorder, UdpMetrics metrics, MessageDispatcher dispatcher,
+                PlayerStateSink stateSink, Supplier<DatagramChannel> sendChannel, ScheduledExecutorService tickExecutor) {
+        this.id = id;
+        this.name = name;
+        this.tracer = tracer;
+        this.recorder = recorder;
+        this.replayRing = recorder.ring("room-" + id);
+        this.metrics = metrics;
+        this.dispatcher = dispatcher;
+        this.stateSink = stateSink;
+        this.sendChannel = sendChannel;
+        this.movesSinceStaged = new int[capacity];
+        this.stagedPlayers = new int[capacity];
+        this.stageEveryTicks = (int) Math.max(1, properties.getStateStageInterval() * properties.getTickRate() / 1000);
+        this.sessions = new SessionTable(capacity, SNAPSHOT_HISTORY_LENGTH, properties.getSendQueueDepth(),
+                properties.getMaxDatagramSize(), properties.getDisconnectTimeout(), System.currentTimeMillis());
+        this.inputRings = new InputRing[receivers];
+        this.reliableDeliveries = new ReliableDelivery[receivers];
+        for (int i = 0; i < receivers; i++) {
+            inputRings[i] = new InputRing(inputRingSize);
+            reliableDeliveries[i] = new ReliableDelivery(inputRings[i]);
+        }
+        this.tickLoop = new TickLoop("udp-tick-" + name, properties.getTickRate(), this::onTick, tickExecutor);
+        this.snapshotBuffer = ByteBuffer.allocateDirect(properties.getMaxDatagramSize()).order(ByteOrder.LITTLE_ENDIAN);
+        this.interestRadius = properties.getInterestRadius();
+        // Cells as wide as the radius keep each query to the 3x3(x3) block around the player
+        this.spatialGrid = interestRadius > 0 ? new SpatialGrid(interestRadius, 64) : null;
+        this.deltaSnapshots = properties.isDeltaSnapshots();
+        this.positionPrecision = properties.getPositionPrecision();
+        this.positionHistory = new PositionHistory(capacity, properties.getPositionHistoryTicks());
+        this.hitTolerance = properties.getHitTolerance();
+        this.reliableChannels = new ReliableChannel[capacity];
+        for (int i = 0; i < capacity; i++) {
+            reliableChannels[i] = new ReliableChannel();
+        }
+        this.reliableResendMillis = properties.getReliableResendMillis();
+        if (properties.isCongestionControl()) {
+            this.congestion = new CongestionController[capacity];
+            for (int i = 0; i < capacity; i++) {
+                congestion[i] = new CongestionController(properties.getMinSnapshotBudget(), properties.getSnapshotBudget(),
+                        properties.getMaxSnapshotInterval());
+            }
+        } else {
+            this.congestion = null;
+        }
+        this.idleTicks = properties.getTickRate();
+        this.lastMovedTicks = new int[capacity];
+    }
+
+    public void start() {
+        tickLoop.start();
+    }
+
+    // Waits for a tick in progress before the room's ring is released
+    public void close() {
+        tickLoop.stop();
+        recorder.release(replayRing);
+    }
+
+    public int id() {
+        return id;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    public int capacity() {
+        return sessions.capacity();
+    }
+
+    // Drops the player's session, if any, when it moves to another room
+    public void evict(int playerId) {
+        final var slot = sessions.findPlayer(playerId);
+        final var address = slot != SessionTable.NO_SESSION ? sessions.address(slot) : null;
+        if (address != null && sessions.remove(slot, address)) {
+            logger.info("Player {} left room {}", playerId, name);
+        }
+    }
+
+    // Sends message (a complete packet) to the player over its reliable channel. Any thread. Returns
+    // false if the player has no session here or too many of its reliable messages are unacked.
+    public boolean sendReliable(int playerId, ByteBuffer message) {
+        final var slot = sessions.findPlayer(playerId);
+        final var address = slot != SessionTable.NO_SESSION ? sessions.address(slot) : null;
+        if (address == null) {
+            return false;
+        }
+        final var channel = reliableChannels[slot];
+        channel.bind(address, playerId);
+        if (!channel.send(message, System.currentTimeMillis(), sessions.outboundQueue(slot))) {
+            metrics.reliableRejected();
+            return false;
+        }
+        return true;
+    }
+
+    // Called on receiver thread 'receiver' for every valid packet of a player in this room
+    void onPacket(PacketView packet, InetSocketAddress sender, int receiver) {
+        // Register the player if not already in the table
+        final var slot = sessions.register(sender, packet.playerId(), System.currentTimeMillis());
+        if (slot == SessionTable.NO_SESSION) {
+            metrics.packetRejected();
+            warnSessionTableFull(sender);
+            return;
+        }
+        if (tracer.shouldTrace(packet.playerId())) {
+            tracer.traceInbound(packet, sender);
+        }
+        if (packet.messageType() == UDPPacket.RELIABLE) {
+            handleReliable(packet, slot, sender, reliableDeliveries[receiver]);
+            return;
+        }
+        handlePacket(packet, slot, sender, inputRings[receiver]);
+    }
+
+    // Header and payload are read in place through the view, nothing is copied out of the receive buffer
+    private void handlePacket(PacketView packet, int slot, InetSocketAddress sender, InputRing inputRing) {
+        final var messageType = packet.messageType();
+        switch (messageType) {
+            case UDPPacket.DISCONNECT:
+                sessions.remove(slot, sender);
+                logger.info("Player disconnected from room {}: {}", name, sender);
+                break;
+            case UDPPacket.MOVE:
+                handleMove(packet, slot, sender, inputRing);
+                break;
+            case UDPPacket.SNAPSHOT_ACK:
+                if (packet.payloadLength() >= 4) {
+                    sessions.snapshotHistory(slot).acknowledge(packet.payloadInt(0));
+                    onSnapshotAck(slot, sender, packet.playerId(), packet.payloadInt(0));
+                }
+                break;
+            case UDPPacket.RELIABLE_ACK:
+                if (packet.payloadLength() >= 6) {
+                    final var channel = reliableChannels[slot];
+                    channel.bind(sender, packet.playerId());
+                    channel.acknowledge(packet.payloadUnsignedShort(0), packet.payloadInt(2));
+                } else {
+                    metrics.decodeFailure();
+                }
+                break;
+            default:
+                // Game logic (actions and anything registered later) runs on the dispatcher's
+                // per-player mailboxes so a slow handler never holds up this receive thread
+                if (dispatcher.handles(messageType)) {
+                    dispatcher.dispatch(packet.playerId(), packet);
+                    break;
+                }
+                metrics.decodeFailure();
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Unknown message type {} from {}", messageType, sender);
+                }
+        }
+    }
+
+    private void onSnapshotAck(int slot, InetSocketAddress sender, int playerId, int tick) {
+        if (congestion == null) {
+            return;
+        }
+        final var controller = congestion[slot];
+        controller.bind(sender, playerId);
+        final var rtt = controller.onAck(tick, System.currentTimeMillis());
+        if (rtt >= 0) {
+            metrics.clientRtt(rtt);
+        }
+    }
+
+    // Acks carried by the packet are applied first, then the wrapped message and any it unblocks are
+    // handled like any other packet, in the client's sequence order. The receiver's view is re-pointed
+    // at each message in turn, so nothing is allocated unless a message arrives early and is held.
+    private void handleReliable(PacketView packet, int slot, InetSocketAddress sender, ReliableDelivery delivery) {
+        final var innerLength = packet.packetLength() - UDPPacket.RELIABLE_HEADER_SIZE;
+        if (innerLength < UDPPacket.HEADER_SIZE) {
+            metrics.decodeFailure();
+            return;
+        }
+        final var playerId = packet.playerId();
+        final var channel = reliableChannels[slot];
+        channel.bind(sender, playerId);
+        channel.acknowledge(packet.payloadUnsignedShort(2), packet.payloadInt(4));
+        delivery.view = packet;
+        delivery.slot = slot;
+        delivery.sender = sender;
+        delivery.playerId = playerId;
+        channel.receive(packet.payloadUnsignedShort(0), packet.buffer(), packet.offset() + UDPPacket.RELIABLE_HEADER_SIZE,
+                innerLength, delivery);
+    }
+
+    // Movement is queued for the tick, which applies it before building the next snapshot
+    private void handleMove(PacketView packet, int slot, InetSocketAddress sender, InputRing inputRing) {
+        // Vector3 (3 floats) followed by the facing byte (0 = right, 1 = left)
+        if (packet.payloadLength() >= PacketView.MOVE_PAYLOAD_SIZE) {
+            if (!inputRing.offerMove(slot, sender, packet.playerId(), packet.x(), packet.y(), packet.z(), packet.facing())) {
+                metrics.inputDropped();
+            }
+        } else {
+            metrics.decodeFailure();
+            if (logger.isDebugEnabled()) {
+                logger.debug("Payload size is incorrect. Expected 12 bytes for Vector3 and a facing byte, got {}", packet.payloadLength());
+            }
+        }
+    }
+
+    // Lag compensation: the target is rewound to the tick the shooter was seeing, bounded by the
+    // history window, and the claimed hit point must lie within tolerance of where it was then
+    boolean validateHit(ByteBuffer payload) {
+        final var target = payload.getInt(1);
+        final var slot = sessions.findPlayer(target);
+        if (slot == SessionTable.NO_SESSION) {
+            return false;
+        }
+        final var now = currentTick;
+        var tick = payload.getInt(5);
+        var fraction = Byte.toUnsignedInt(payload.get(9)) / 256f;
+        if (tick >= now) {
+            // Nobody sees the future, a tick ahead of the server is clamped to the present
+            tick = now;
+            fraction = 0f;
+        }
+        if (now - tick >= positionHistory.length()) {
+            return false;
+        }
+        final var distance = positionHistory.distanceSquaredAt(slot, target, tick, fraction,
+                payload.getFloat(10), payload.getFloat(14), payload.getFloat(18));
+        return distance >= 0 && distance <= hitTolerance * hitTolerance;
+    }
+
+    // At most one warning per second, a full server would otherwise log for every packet
+    private void warnSessionTableFull(InetSocketAddress sender) {
+        final var now = System.currentTimeMillis();
+        if (now - lastSessionTableFullWarning >= 1000L) {
+            lastSessionTableFullWarning = now;
+            logger.warn("Room {} full ({} players), dropping packets from {} and others", name, sessions.capacity(), sender);
+        }
+    }
+
+    // Package-private so benchmarks can drive a tick without sockets
+    void onTick(long tick) {
+        final var start = System.nanoTime();
+        messagesQueuedThisTick = 0;
+        tickInProgress = (int) tick;
+        if (replayRing != null) {
+            recorder.record(replayRing, ReplayLog.TICK, id, 0, tickInProgress, null, snapshotBuffer, 0);
+        }
+        applyInput();
+        recordPositions((int) tick);
+        if (tick % stageEveryTicks == 0) {
+            stagePlayerState();
+        }
+        // Idle clients are dropped before building snapshots so they are not sent one more
+        sessions.expireIdle(System.currentTimeMillis(), expiryListener);
+        broadcastSnapshot(tick);
+        serviceReliable(System.currentTimeMillis());
+        flushOutbound();
+        metrics.tickCompleted(System.nanoTime() - start, messagesQueuedThisTick);
+    }
+
+    // Drains every receiver's ring in one batch. Package-private for benchmarks.
+    void applyInput() {
+        var moves = 0;
+        for (final var ring : inputRings) {
+            moves += ring.drain(moveApplier);
+        }
+        metrics.inputApplied(moves);
+    }
+
+    // One history sample per positioned player per tick, the timeline hit claims are rewound along.
+    // A slot whose session ended, by disconnect, eviction or timeout, loses its history here on the
+    // tick, so a player rejoining into it is not interpolated across the gap.
+    private void recordPositions(int tick) {
+        final var highWaterMark = sessions.highWaterMark();
+        for (int slot = 0; slot < highWaterMark; slot++) {
+            if (!sessions.isActive(slot)) {
+                positionHistory.clear(slot);
+            } else if (sessions.isPositioned(slot)) {
+                positionHistory.record(slot, sessions.playerId(slot), tick, sessions.x(slot), sessions.y(slot), sessions.z(slot));
+            }
+        }
+        currentTick = tick;
+    }
+
+    // The slot may have been freed or handed to another client since the move was queued
+    private void applyMove(int slot, InetSocketAddress address, int playerId, float x, float y, float z, byte facing) {
+        if (sessions.isActive(slot) && address.equals(sessions.address(slot))) {
+            if (x != sessions.x(slot) || y != sessions.y(slot) || z != sessions.z(slot) || !sessions.isPositioned(slot)) {
+                lastMovedTicks[slot] = tickInProgress;
+            }
+            sessions.updatePosition(slot, playerId, x, y, z, facing);
+            if (stagedPlayers[slot] != playerId) {
+                stagedPlayers[slot] = playerId;
+                movesSinceStaged[slot] = 0;
+            }
+            movesSinceStaged[slot]++;
+        }
+    }
+
+    // Hands every player that moved since the last call to write-behind persistence, which only
+    // buffers it; the database is written from its own thread
+    private void stagePlayerState() {
+        final var highWaterMark = sessions.highWaterMark();
+        for (int slot = 0; slot < highWaterMark; slot++) {
+            final var moves = movesSinceStaged[slot];
+            if (moves > 0 && sessions.isActive(slot) && sessions.playerId(slot) == stagedPlayers[slot]) {
+                stateSink.stage(stagedPlayers[slot], sessions.x(slot), sessions.y(slot), sessions.z(slot), sessions.facing(slot),
+                        sessions.lastSeen(slot), moves);
+            }
+            movesSinceStaged[slot] = 0;
+        }
+    }
+
+    // Acks for what clients sent reliably since the last tick, queued after the snapshots so they
+    // share their datagram, and resends of what clients have not acked in time
+    private void serviceReliable(long now) {
+        final var highWaterMark = sessions.highWaterMark();
+        var resent = 0;
+        for (int slot = 0; slot < highWaterMark; slot++) {
+            final var channel = reliableChannels[slot];
+            if (!channel.isAckDue() && !channel.hasUnacked()) {
+                continue;
+            }
+            if (!sessions.isActive(slot) || !channel.isBoundTo(sessions.address(slot))) {
+                // The client left; whoever gets the slot next rebinds the channel
+                continue;
+            }
+            if (channel.writeAck(ackBuffer)) {
+                send(ackBuffer, slot);
+            }
+            if (channel.hasUnacked()) {
+                resent += channel.resend(now, reliableResendMillis, sessions.outboundQueue(slot));
+            }
+        }
+        if (resent > 0) {
+            metrics.reliableResent(resent);
+        }
+    }
+
+    // One flush per tick: everything queued for a client since the last tick goes out coalesced
+    private void flushOutbound() {
+        final var channel = sendChannel.get();
+        if (channel == null) {
+            return;
+        }
+        final var highWaterMark = sessions.highWaterMark();
+        var sent = 0;
+        for (int slot = 0; slot < highWaterMark; slot++) {
+            final var address = sessions.address(slot);
+            if (sessions.isActive(slot) && address != null) {
+                sent += sessions.outboundQueue(slot).flush(channel, address);
+            }
+        }
+        metrics.datagramsSent(sent);
+    }
+
+    private void onSessionExpired(InetSocketAddress address, int playerId) {
+        logger.info("Removing inactive player {} from room {}: {}", playerId, name, address);
+    }
+
+    // Runs on the tick thread. Without an interest radius or delta encoding the same full-world
+    // datagrams go to every client; otherwise every client gets its own snapshot holding only the
+    // players near it, delta encoded against the last snapshot it acknowledged, at the rate and size
+    // its congestion controller allows.
+    private void broadcastSnapshot(long tick) {
+        if (sessions.size() == 0) {
+            return;
+        }
+        if (interestRadius <= 0 && !deltaSnapshots) {
+            broadcastFullSnapshot((int) tick);
+            return;
+        }
+
+        final var count = collectTickPlayers();
+        final var now = System.currentTimeMillis();
+        for (int self = 0; self < count; self++) {
+            final var controller = congestionController(tickSlots[self]);
+            if (controller != null && !controller.isDue(tick, tickSlots[self])) {
+                metrics.snapshotDeferred();
+                continue;
+            }
+            var visible = visibleTo(self);
+            if (controller != null) {
+                visible = prioritize(self, visible, entityBudget(controller.budget()));
+            }
+            if (deltaSnapshots) {
+                sendDeltaSnapshot((int) tick, self, visible);
+            } else {
+                sendInterestSnapshot((int) tick, self, visible);
+            }
+            if (controller != null) {
+                controller.onSent((int) tick, now);
+            }
+        }
+    }
+
+    // The slot's controller bound to its current client, or null without congestion control
+    private CongestionController congestionController(int slot) {
+        final var address = congestion != null ? sessions.address(slot) : null;
+        if (address == null) {
+            return null;
+        }
+        final var controller = congestion[slot];
+        controller.bind(address, sessions.playerId(slot));
+        return controller;
+    }
+
+    private int entityBudget(int bytes) {
+        final var header = deltaSnapshots ? UDPPacket.DELTA_SNAPSHOT_HEADER_SIZE : UDPPacket.SNAPSHOT_HEADER_SIZE;
+        return Math.max(1, (int) ((bytes - header) / bytesPerEntity));
+    }
+
+    // Keeps the 'budget' players most worth sending to client 'self' at the front of interestResults:
+    // nearest first, with players that stood still counted further away. Returns how many to send.
+    private int prioritize(int self, int visible, int budget) {
+        if (visible <= budget) {
+            return visible;
+        }
+        final var selfSlot = tickSlots[self];
+        final var x = sessions.x(selfSlot);
+        final var y = sessions.y(selfSlot);
+        final var z = sessions.z(selfSlot);
+        var others = 0;
+        for (int n = 0; n < visible; n++) {
+            final var index = interestResults[n];
+            if (index == self) {
+                continue;
+            }
+            final var other = tickSlots[index];
+            final var dx = sessions.x(other) - x;
+            final var dy = sessions.y(other) - y;
+            final var dz = sessions.z(other) - z;
+            var distance = dx * dx + dy * dy + dz * dz;
+            if (tickInProgress - lastMovedTicks[other] > idleTicks) {
+                distance *= IDLE_DISTANCE_FACTOR * IDLE_DISTANCE_FACTOR;
+            }
+            // Bits of a non-negative float order like the float itself
+            sortKeys[others++] = ((long) Float.floatToRawIntBits(distance) << 32) | index;
+        }
+        if (others <= budget) {
+            return visible;
+        }
+        Arrays.sort(sortKeys, 0, others);
+        for (int n = 0; n < budget; n++) {
+            interestResults[n] = (int) sortKeys[n];
+        }
+        metrics.snapshotTrimmed(others - budget);
+        return budget;
+    }
+
+    // Copies every active session into the per-tick arrays and indexes the positioned ones
+    private int collectTickPlayers() {
+        var count = 0;
+        positionedCount = 0;
+        if (spatialGrid != null) {
+            spatialGrid.clear();
+        }
+        final var highWaterMark = sessions.highWaterMark();
+        for (int slot = 0; slot < highWaterMark; slot++) {
+            if (!sessions.isActive(slot)) {
+                continue;
+            }
+            ensureTickCapacity(count + 1);
+            tickSlots[count] = slot;
+            if (sessions.isPositioned(slot)) {
+                positionedPlayers[positionedCount++] = count;
+                if (spatialGrid != null) {
+                    spatialGrid.insert(count, sessions.x(slot), sessions.y(slot), sessions.z(slot));
+                }
+            }
+            count++;
+        }
+        return count;
+    }
+
+    // Fills interestResults with the tick indices client 'self' can see and returns how many
+    private int visibleTo(int self) {
+        if (spatialGrid == null) {
+            System.arraycopy(positionedPlayers, 0, interestResults, 0, positionedCount);
+            return positionedCount;
+        }
+        // Clients that never sent a position have no area of interest and receive nothing yet
+        final var slot = tickSlots[self];
+        if (!sessions.isPositioned(slot)) {
+            return 0;
+        }
+        return spatialGrid.query(sessions.x(slot), sessions.y(slot), sessions.z(slot), interestRadius, interestResults);
+    }
+
+    private void sendInterestSnapshot(int tick, int self, int visible) {
+        final var buffer = snapshotBuffer;
+        final var slot = tickSlots[self];
+        var entities = 0;
+        UDPPacket.beginSnapshot(buffer, tick);
+
+        for (int n = 0; n < visible; n++) {
+            final var index = interestResults[n];
+            if (index == self) {
+                continue;
+            }
+            if (snapshotFull(buffer, entities)) {
+                UDPPacket.finishSnapshot(buffer, entities);
+                send(buffer, slot);
+                UDPPacket.beginSnapshot(buffer, tick);
+                entities = 0;
+            }
+            putSnapshotEntry(buffer, tickSlots[index]);
+            entities++;
+        }
+
+        if (entities > 0) {
+            UDPPacket.finishSnapshot(buffer, entities);
+            send(buffer, slot);
+        }
+    }
+
+    private void sendDeltaSnapshot(int tick, int self, int visible) {
+        // Baseline entity lookups need the frame sorted by player id
+        var entities = 0;
+        for (int n = 0; n < visible; n++) {
+            final var index = interestResults[n];
+            if (index != self) {
+                sortKeys[entities++] = ((long) sessions.playerId(tickSlots[index]) << 32) | index;
+            }
+        }
+        Arrays.sort(sortKeys, 0, entities);
+
+        // Take the new frame first: if it recycles the acked slot, baseline() sees the tick mismatch
+        final var selfSlot = tickSlots[self];
+        final var history = sessions.snapshotHistory(selfSlot);
+        final var frame = history.next(tick);
+        final var baseline = history.baseline();
+        for (int n = 0; n < entities; n++) {
+            final var other = tickSlots[(int) sortKeys[n]];
+            frame.add(sessions.playerId(other),
+                    UDPPacket.quantize(sessions.x(other), positionPrecision),
+                    UDPPacket.quantize(sessions.y(other), positionPrecision),
+                    UDPPacket.quantize(sessions.z(other), positionPrecision),
+                    sessions.facing(other));
+        }
+
+        // An empty frame is still sent once so the client can ack it and move its baseline forward
+        var next = 0;
+        var part = 0;
+        var bytes = 0;
+        do {
+            next = UDPPacket.writeDeltaSnapshot(snapshotBuffer, snapshotBits, frame, next, baseline, part++, positionPrecision);
+            bytes += snapshotBuffer.limit() - UDPPacket.DELTA_SNAPSHOT_HEADER_SIZE;
+            send(snapshotBuffer, selfSlot);
+        } while (next < frame.size());
+        if (entities > 0) {
+            bytesPerEntity += ((float) bytes / entities - bytesPerEntity) / 16f;
+        }
+    }
+
+    // Packs every positioned player into as few datagrams as fit the configured size and sends the
+    // same datagrams to every client. Clients skip their own entry.
+    private void broadcastFullSnapshot(int tick) {
+        final var buffer = snapshotBuffer;
+        final var highWaterMark = sessions.highWaterMark();
+        var entities = 0;
+        UDPPacket.beginSnapshot(buffer, tick);
+
+        for (int slot = 0; slot < highWaterMark; slot++) {
+            if (!sessions.isActive(slot) || !sessions.isPositioned(slot)) {
+                continue;
+            }
+            if (snapshotFull(buffer, entities)) {
+                UDPPacket.finishSnapshot(buffer, entities);
+                sendToAll(buffer);
+                UDPPacket.beginSnapshot(buffer, tick);
+                entities = 0;
+            }
+            putSnapshotEntry(buffer, slot);
+            entities++;
+        }
+
+        if (entities > 0) {
+            UDPPacket.finishSnapshot(buffer, entities);
+            sendToAll(buffer);
+        }
+    }
+
+    private void putSnapshotEntry(ByteBuffer buffer, int slot) {
+        UDPPacket.putSnapshotEntry(buffer, sessions.playerId(slot), sessions.x(slot), sessions.y(slot), sessions.z(slot), sessions.facing(slot));
+    }
+
+    private static boolean snapshotFull(ByteBuffer buffer, int entities) {
+        return entities == UDPPacket.MAX_SNAPSHOT_ENTRIES
+                || buffer.position() + UDPPacket.SNAPSHOT_ENTRY_SIZE > buffer.capacity();
+    }
+
+    private void ensureTickCapacity(int capacity) {
+        if (capacity > tickSlots.length) {
+            final var newLength = Math.max(capacity, tickSlots.length * 2);
+            tickSlots = Arrays.copyOf(tickSlots, newLength);
+            positionedPlayers = Arrays.copyOf(positionedPlayers, newLength);
+            interestResults = new int[newLength];
+            sortKeys = new long[newLength];
+        }
+    }
+
+    private void sendToAll(ByteBuffer datagram) {
+        final var highWaterMark = sessions.highWaterMark();
+        for (int slot = 0; slot < highWaterMark; slot++) {
+            if (sessions.isActive(slot)) {
+                send(datagram, slot);
+            }
+        }
+    }
+
+    // Queues a copy of the datagram for the client; it goes out with this tick's flush
+    private void send(ByteBuffer datagram, int slot) {
+        final var playerId = sessions.playerId(slot);
+        if (tracer.shouldTrace(playerId)) {
+            tracer.traceOutbound(datagram.position(0), sessions.address(slot), playerId);
+        }
+        if (replayRing != null) {
+            recorder.record(replayRing, ReplayLog.OUT, id, 0, tickInProgress, sessions.address(slot), datagram, datagram.limit());
+        }
+        final var kept = sessions.outboundQueue(slot).enqueue(datagram.position(0));
+        metrics.messageQueued(datagram.limit(), kept);
+        messagesQueuedThisTick++;
+    }
+
+    // Per receiver thread; handleReliable points it at the packet being received
+    private final class ReliableDelivery implements ReliableChannel.Delivery {
+
+        private final InputRing inputRing;
+        private PacketView view;
+        private int slot;
+        private InetSocketAddress sender;
+        private int playerId;
+
+        private ReliableDelivery(InputRing inputRing) {
+            this.inputRing = inputRing;
+        }
+
+        @Override
+        public void deliver(ByteBuffer buffer, int offset, int length) {
+            view.wrap(buffer, offset, length);
+            if (!view.isValid() || view.messageType() == UDPPacket.RELIABLE || view.playerId() != playerId) {
+                metrics.decodeFailure();
+                return;
+            }
+            handlePacket(view, slot, sender, inputRing);
+        }
+    }
+}
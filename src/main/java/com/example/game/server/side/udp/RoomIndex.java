@@ -0,0 +1,139 @@
+package com.example.game.server.side.udp;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+// Player id -> room, read on every packet by the receivers and changed only when players are
+// assigned, so reads are lock-free and allocation-free and writes take a lock.
+//
+// Open addressing with linear probing over parallel arrays. A key, once written, never moves or
+// goes away: removing a player only clears its room, so a reader's probe sequence stays valid while
+// the writer works. The room is stored before the key is published with a release store, so a
+// reader that finds the key also finds its room. When used keys pass three quarters of the table
+// it is rebuilt without the removed ones and the new table is published whole.
+public class RoomIndex {
+
+    private static final long EMPTY = 0L;
+    // Player ids use the low 32 bits; the tag keeps id 0 distinct from an empty entry
+    private static final long USED = 1L << 32;
+    private static final VarHandle KEYS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle ROOMS = MethodHandles.arrayElementVarHandle(Room[].class);
+
+    private static final class Table {
+
+        final long[] keys;
+        final Room[] rooms;
+        final int mask;
+        // Written under the index lock only
+        int used;
+
+        Table(int size) {
+            keys = new long[size];
+            rooms = new Room[size];
+            mask = size - 1;
+        }
+    }
+
+    private volatile Table table = new Table(64);
+
+    // Null if the player is not assigned
+    public Room find(int playerId) {
+        final var current = table;
+        final var key = key(playerId);
+        for (var index = mix(playerId) & current.mask; ; index = (index + 1) & current.mask) {
+            final var stored = (long) KEYS.getAcquire(current.keys, index);
+            if (stored == key) {
+                return (Room) ROOMS.getAcquire(current.rooms, index);
+            }
+            if (stored == EMPTY) {
+                return null;
+            }
+        }
+    }
+
+    public synchronized void put(int playerId, Room room) {
+        var current = table;
+        final var existing = indexOf(current, playerId);
+        if (existing >= 0) {
+            ROOMS.setRelease(current.rooms, existing, room);
+            return;
+        }
+        if ((current.used + 1) * 4 > current.keys.length * 3) {
+            current = rebuild(current);
+        }
+        insert(current, playerId, room);
+    }
+
+    public synchronized void remove(int playerId) {
+        final var current = table;
+        final var existing = indexOf(current, playerId);
+        if (existing >= 0) {
+            ROOMS.setRelease(current.rooms, existing, null);
+        }
+    }
+
+    // Unassigns every player of the room
+    public synchronized void removeRoom(Room room) {
+        final var current = table;
+        for (int i = 0; i < current.rooms.length; i++) {
+            if (current.rooms[i] == room) {
+                ROOMS.setRelease(current.rooms, i, null);
+            }
+        }
+    }
+
+    private static int indexOf(Table table, int playerId) {
+        final var key = key(playerId);
+        for (var index = mix(playerId) & table.mask; ; index = (index + 1) & table.mask) {
+            final var stored = table.keys[index];
+            if (stored == key) {
+                return index;
+            }
+            if (stored == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    private static void insert(Table table, int playerId, Room room) {
+        var index = mix(playerId) & table.mask;
+        while (table.keys[index] != EMPTY) {
+            index = (index + 1) & table.mask;
+        }
+        table.rooms[index] = room;
+        KEYS.setRelease(table.keys, index, key(playerId));
+        table.used++;
+    }
+
+    // At most a quarter full afterwards so the next rebuild is far off, and never smaller than before
+    private Table rebuild(Table old) {
+        var live = 0;
+        for (final var room : old.rooms) {
+            if (room != null) {
+                live++;
+            }
+        }
+        var size = old.keys.length;
+        while ((live + 1) * 4 > size) {
+            size <<= 1;
+        }
+        final var rebuilt = new Table(size);
+        for (int i = 0; i < old.keys.length; i++) {
+            if (old.rooms[i] != null) {
+                insert(rebuilt, (int) old.keys[i], old.rooms[i]);
+            }
+        }
+        table = rebuilt;
+        return rebuilt;
+    }
+
+    private static long key(int playerId) {
+        return USED | Integer.toUnsignedLong(playerId);
+    }
+
+    // Sequential ids would otherwise fill neighbouring entries and lengthen probes
+    private static int mix(int playerId) {
+        final var h = playerId * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,449 @@
+package com.example.game.server.side.udp;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+// Connected UDP clients, one slot per client holding its address, last-seen time and game state.
+//
+// Slots live in fixed primitive arrays and a slot number stays valid for the whole session, so the
+// tick thread can walk 0..highWaterMark() without any lookups. Clients are found through an
+// open-addressing index keyed by address hash + port (exact for IPv4); the same index also maps
+// player ids to slots, under a tagged key, for lookups by game logic. Lookups are lock-free
+// optimistic reads; only registering and removing a client takes the write lock. Positions are
+// written by the tick thread as it applies queued input; lastSeen by the receiver thread that owns
+// the client's socket. Per-slot fields are published through the release/acquire stores on 'versions'.
+//
+// Idle clients are expired through a TimingWheel: a session is filed under lastSeen + timeout when it
+// registers, and when that bucket comes due it is either removed or refiled under its newer
+// lastSeen. The packet path itself only ever writes lastSeen.
+public class SessionTable {
+
+    public static final int NO_SESSION = -1;
+
+    @FunctionalInterface
+    public interface ExpiryListener {
+        void onExpired(InetSocketAddress address, int playerId);
+    }
+
+    private static final long EXPIRY_RESOLUTION_MILLIS = 100L;
+
+    private static final long EMPTY = -1L;
+    private static final long TOMBSTONE = -2L;
+    // Address keys use the low 48 bits, player keys are tagged above them
+    private static final long PLAYER_KEY = 1L << 48;
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final StampedLock lock = new StampedLock();
+    private final int maxSessions;
+    private final long idleTimeoutMillis;
+    private final TimingWheel expiryWheel;
+    // Only used by the thread calling expireIdle()
+    private final int[] dueSlots;
+
+    // Index: address key -> slot and player key -> slot
+    private final long[] indexKeys;
+    private final int[] indexSlots;
+    private int tombstones;
+
+    // Slots
+    private final InetSocketAddress[] addresses;
+    private final long[] keys;
+    private final int[] indexedPlayerIds;
+    private final int[] playerIds;
+    private final long[] lastSeen;
+    private final float[] xs;
+    private final float[] ys;
+    private final float[] zs;
+    private final byte[] facings;
+    private final boolean[] positioned;
+    // 0 = free, otherwise bumped on every position update so readers can acquire the slot's fields
+    private final int[] versions;
+    private final SnapshotHistory[] snapshotHistories;
+    private final int snapshotHistoryLength;
+    private final OutboundQueue[] outboundQueues;
+    private final int sendQueueDepth;
+    private final int maxDatagramSize;
+    private final int[] freeSlots;
+    private int freeCount;
+    private volatile int highWaterMark;
+    private volatile int size;
+
+    public SessionTable(int maxSessions, int snapshotHistoryLength, int sendQueueDepth, int maxDatagramSize,
+                        long idleTimeoutMillis, long now) {
+        this.maxSessions = maxSessions;
+        this.snapshotHistoryLength = snapshotHistoryLength;
+        this.sendQueueDepth = sendQueueDepth;
+        this.maxDatagramSize = maxDatagramSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        // One rotation spans at least the timeout so a session is normally visited once per deadline
+        final var wheelSize = Integer.highestOneBit((int) (idleTimeoutMillis / EXPIRY_RESOLUTION_MILLIS) * 2 + 1);
+        this.expiryWheel = new TimingWheel(maxSessions, EXPIRY_RESOLUTION_MILLIS, Math.max(16, wheelSize), now);
+        this.dueSlots = new int[maxSessions];
+        // Two entries per session, kept at most a quarter full
+        final var indexSize = Integer.highestOneBit(Math.max(16, maxSessions) * 8 - 1);
+        indexKeys = new long[indexSize];
+        indexSlots = new int[indexSize];
+        Arrays.fill(indexKeys, EMPTY);
+
+        addresses = new InetSocketAddress[maxSessions];
+        keys = new long[maxSessions];
+        indexedPlayerIds = new int[maxSessions];
+        playerIds = new int[maxSessions];
+        lastSeen = new long[maxSessions];
+        xs = new float[maxSessions];
+        ys = new float[maxSessions];
+        zs = new float[maxSessions];
+        facings = new byte[maxSessions];
+        positioned = new boolean[maxSessions];
+        versions = new int[maxSessions];
+        snapshotHistories = new SnapshotHistory[maxSessions];
+        outboundQueues = new OutboundQueue[maxSessions];
+        freeSlots = new int[maxSessions];
+        // Hand out low slots first so highWaterMark stays tight
+        for (int i = 0; i < maxSessions; i++) {
+            freeSlots[i] = maxSessions - 1 - i;
+        }
+        freeCount = maxSessions;
+    }
+
+    public int find(InetSocketAddress address) {
+        final var key = key(address);
+        var stamp = lock.tryOptimisticRead();
+        var slot = probe(key, address);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                slot = probe(key, address);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return slot;
+    }
+
+    // Slot of the newest session claiming this player id, NO_SESSION if none
+    public int findPlayer(int playerId) {
+        final var key = playerKey(playerId);
+        var stamp = lock.tryOptimisticRead();
+        var slot = probePlayer(key, playerId);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                slot = probePlayer(key, playerId);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return slot;
+    }
+
+    // Finds the client's slot or registers it. Returns NO_SESSION when the table is full.
+    public int register(InetSocketAddress address, int playerId, long now) {
+        var slot = find(address);
+        if (slot == NO_SESSION) {
+            slot = insert(address, playerId, now);
+        } else {
+            lastSeen[slot] = now;
+        }
+        return slot;
+    }
+
+    public boolean remove(InetSocketAddress address) {
+        final var stamp = lock.writeLock();
+        try {
+            final var slot = probe(key(address), address);
+            if (slot == NO_SESSION) {
+                return false;
+            }
+            release(slot);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Removes the slot if it still belongs to the same client
+    public boolean remove(int slot, InetSocketAddress address) {
+        final var stamp = lock.writeLock();
+        try {
+            if ((int) INTS.getAcquire(versions, slot) == 0 || !address.equals(addresses[slot])) {
+                return false;
+            }
+            release(slot);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Removes every session not heard from within the idle timeout and reports it to the listener.
+    // Cost is proportional to the sessions that came due, not to the table size.
+    public int expireIdle(long now, ExpiryListener listener) {
+        final var due = expiryWheel.advance(now, dueSlots);
+        var expired = 0;
+        for (int i = 0; i < due; i++) {
+            final var slot = dueSlots[i];
+            final var address = addresses[slot];
+            if (!isActive(slot) || address == null) {
+                continue;
+            }
+            final var seen = lastSeen[slot];
+            if (now - seen >= idleTimeoutMillis) {
+                final var playerId = playerIds[slot];
+                if (remove(slot, address)) {
+                    expired++;
+                    listener.onExpired(address, playerId);
+                }
+            } else {
+                expiryWheel.schedule(slot, seen + idleTimeoutMillis);
+            }
+        }
+        return expired;
+    }
+
+    public void touch(int slot, long now) {
+        lastSeen[slot] = now;
+    }
+
+    public void updatePosition(int slot, int playerId, float x, float y, float z, byte facing) {
+        playerIds[slot] = playerId;
+        xs[slot] = x;
+        ys[slot] = y;
+        zs[slot] = z;
+        facings[slot] = facing;
+        positioned[slot] = true;
+        publish(slot);
+    }
+
+    // Slots below this may be active; iterate and check isActive()
+    public int highWaterMark() {
+        return highWaterMark;
+    }
+
+    public boolean isActive(int slot) {
+        return (int) INTS.getAcquire(versions, slot) != 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return maxSessions;
+    }
+
+    public InetSocketAddress address(int slot) {
+        return addresses[slot];
+    }
+
+    public int playerId(int slot) {
+        return playerIds[slot];
+    }
+
+    public long lastSeen(int slot) {
+        return lastSeen[slot];
+    }
+
+    public boolean isPositioned(int slot) {
+        return positioned[slot];
+    }
+
+    public float x(int slot) {
+        return xs[slot];
+    }
+
+    public float y(int slot) {
+        return ys[slot];
+    }
+
+    public float z(int slot) {
+        return zs[slot];
+    }
+
+    public byte facing(int slot) {
+        return facings[slot];
+    }
+
+    public SnapshotHistory snapshotHistory(int slot) {
+        return snapshotHistories[slot];
+    }
+
+    public OutboundQueue outboundQueue(int slot) {
+        return outboundQueues[slot];
+    }
+
+    private int insert(InetSocketAddress address, int playerId, long now) {
+        final var stamp = lock.writeLock();
+        try {
+            // Another receiver may have registered it between find() and here
+            final var key = key(address);
+            final var existing = probe(key, address);
+            if (existing != NO_SESSION) {
+                return existing;
+            }
+            if (freeCount == 0) {
+                return NO_SESSION;
+            }
+            if (tombstones > indexKeys.length / 4) {
+                rebuildIndex();
+            }
+
+            final var slot = freeSlots[--freeCount];
+            addresses[slot] = address;
+            keys[slot] = key;
+            playerIds[slot] = playerId;
+            lastSeen[slot] = now;
+            positioned[slot] = false;
+            if (snapshotHistories[slot] == null) {
+                snapshotHistories[slot] = new SnapshotHistory(snapshotHistoryLength, 64);
+            } else {
+                snapshotHistories[slot].reset();
+            }
+            if (outboundQueues[slot] == null) {
+                outboundQueues[slot] = new OutboundQueue(sendQueueDepth, maxDatagramSize);
+            } else {
+                outboundQueues[slot].clear();
+            }
+            indexPut(key, slot);
+            indexedPlayerIds[slot] = playerId;
+            indexPutPlayer(playerId, slot);
+            INTS.setRelease(versions, slot, 1);
+            expiryWheel.schedule(slot, now + idleTimeoutMillis);
+            if (slot >= highWaterMark) {
+                highWaterMark = slot + 1;
+            }
+            size++;
+            return slot;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Caller holds the write lock
+    private void release(int slot) {
+        indexRemove(keys[slot], slot);
+        indexRemove(playerKey(indexedPlayerIds[slot]), slot);
+        INTS.setRelease(versions, slot, 0);
+        expiryWheel.cancel(slot);
+        addresses[slot] = null;
+        freeSlots[freeCount++] = slot;
+        size--;
+    }
+
+    private int probe(long key, InetSocketAddress address) {
+        final var mask = indexKeys.length - 1;
+        var i = spread(key) & mask;
+        for (int probes = 0; probes < indexKeys.length; probes++) {
+            final var current = indexKeys[i];
+            if (current == EMPTY) {
+                return NO_SESSION;
+            }
+            if (current == key) {
+                final var slot = indexSlots[i];
+                // Key is exact for IPv4; the address check resolves IPv6 hash collisions
+                if (address.equals(addresses[slot])) {
+                    return slot;
+                }
+            }
+            i = (i + 1) & mask;
+        }
+        return NO_SESSION;
+    }
+
+    private int probePlayer(long key, int playerId) {
+        final var mask = indexKeys.length - 1;
+        var i = spread(key) & mask;
+        for (int probes = 0; probes < indexKeys.length; probes++) {
+            final var current = indexKeys[i];
+            if (current == EMPTY) {
+                return NO_SESSION;
+            }
+            if (current == key) {
+                final var slot = indexSlots[i];
+                // A client may have switched ids since it registered
+                if (playerIds[slot] == playerId) {
+                    return slot;
+                }
+            }
+            i = (i + 1) & mask;
+        }
+        return NO_SESSION;
+    }
+
+    // A reconnecting player takes over the entry from its old, not yet expired session
+    private void indexPutPlayer(int playerId, int slot) {
+        final var key = playerKey(playerId);
+        final var mask = indexKeys.length - 1;
+        var i = spread(key) & mask;
+        while (indexKeys[i] != EMPTY) {
+            if (indexKeys[i] == key) {
+                indexSlots[i] = slot;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        indexPut(key, slot);
+    }
+
+    private void indexRemove(long key, int slot) {
+        final var mask = indexKeys.length - 1;
+        var i = spread(key) & mask;
+        while (indexKeys[i] != EMPTY) {
+            if (indexKeys[i] == key && indexSlots[i] == slot) {
+                indexKeys[i] = TOMBSTONE;
+                tombstones++;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private void indexPut(long key, int slot) {
+        final var mask = indexKeys.length - 1;
+        var i = spread(key) & mask;
+        while (indexKeys[i] != EMPTY && indexKeys[i] != TOMBSTONE) {
+            i = (i + 1) & mask;
+        }
+        if (indexKeys[i] == TOMBSTONE) {
+            tombstones--;
+        }
+        indexSlots[i] = slot;
+        indexKeys[i] = key;
+    }
+
+    private void rebuildIndex() {
+        Arrays.fill(indexKeys, EMPTY);
+        tombstones = 0;
+        for (int slot = 0; slot < highWaterMark; slot++) {
+            if ((int) INTS.getAcquire(versions, slot) != 0) {
+                indexPut(keys[slot], slot);
+                indexPutPlayer(indexedPlayerIds[slot], slot);
+            }
+        }
+    }
+
+    // Never revives a slot: a late update racing with remove() leaves it free
+    private void publish(int slot) {
+        final var version = (int) INTS.getAcquire(versions, slot);
+        if (version != 0) {
+            final var next = version + 1;
+            INTS.compareAndSet(versions, slot, version, next == 0 ? 1 : next);
+        }
+    }
+
+    // InetAddress.hashCode() is the address itself for IPv4, so this neither allocates nor collides there
+    private static long key(InetSocketAddress address) {
+        return ((address.getAddress().hashCode() & 0xFFFFFFFFL) << 16) | address.getPort();
+    }
+
+    private static long playerKey(int playerId) {
+        return PLAYER_KEY | (playerId & 0xFFFFFFFFL);
+    }
+
+    private static int spread(long key) {
+        return Long.hashCode(key * 0x9E3779B97F4A7C15L);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.game.server.side.udp;
+
+import java.util.Arrays;
+
+// Quantized entity states of one snapshot as seen by one client, kept sorted by player id so a
+// later snapshot can find its delta baseline with a binary search.
+public class SnapshotFrame {
+
+    private int tick = -1;
+    private int count;
+    private int[] playerIds;
+    private int[] xs;
+    private int[] ys;
+    private int[] zs;
+    private byte[] facings;
+
+    public SnapshotFrame(int capacity) {
+        playerIds = new int[capacity];
+        xs = new int[capacity];
+        ys = new int[capacity];
+        zs = new int[capacity];
+        facings = new byte[capacity];
+    }
+
+    public void reset(int tick) {
+        this.tick = tick;
+        this.count = 0;
+    }
+
+    // Entities must be added in ascending player id order
+    public void add(int playerId, int x, int y, int z, byte facing) {
+        if (count == playerIds.length) {
+            final var newLength = count * 2;
+            playerIds = Arrays.copyOf(playerIds, newLength);
+            xs = Arrays.copyOf(xs, newLength);
+            ys = Arrays.copyOf(ys, newLength);
+            zs = Arrays.copyOf(zs, newLength);
+            facings = Arrays.copyOf(facings, newLength);
+        }
+        playerIds[count] = playerId;
+        xs[count] = x;
+        ys[count] = y;
+        zs[count] = z;
+        facings[count] = facing;
+        count++;
+    }
+
+    public int indexOf(int playerId) {
+        return Arrays.binarySearch(playerIds, 0, count, playerId);
+    }
+
+    public int getTick() {
+        return tick;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int playerId(int index) {
+        return playerIds[index];
+    }
+
+    public int x(int index) {
+        return xs[index];
+    }
+
+    public int y(int index) {
+        return ys[index];
+    }
+
+    public int z(int index) {
+        return zs[index];
+    }
+
+    public byte facing(int index) {
+        return facings[index];
+    }
+}
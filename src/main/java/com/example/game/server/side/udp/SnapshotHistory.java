@@ -0,0 +1,50 @@
+package com.example.game.server.side.udp;
+
+// Ring of the last snapshot frames sent to one client plus the newest tick the client acknowledged.
+// Frames are written by the tick thread only; acks arrive from the receiver thread.
+public class SnapshotHistory {
+
+    private static final int NO_ACK = -1;
+
+    private final SnapshotFrame[] frames;
+    private volatile int ackedTick = NO_ACK;
+
+    public SnapshotHistory(int length, int frameCapacity) {
+        frames = new SnapshotFrame[length];
+        for (int i = 0; i < length; i++) {
+            frames[i] = new SnapshotFrame(frameCapacity);
+        }
+    }
+
+    // Recycles the oldest frame for the given tick
+    public SnapshotFrame next(int tick) {
+        final var frame = frames[Math.floorMod(tick, frames.length)];
+        frame.reset(tick);
+        return frame;
+    }
+
+    // Newest acknowledged frame that is still in the ring, or null to send a full snapshot
+    public SnapshotFrame baseline() {
+        final var tick = ackedTick;
+        if (tick == NO_ACK) {
+            return null;
+        }
+        final var frame = frames[Math.floorMod(tick, frames.length)];
+        return frame.getTick() == tick ? frame : null;
+    }
+
+    // Forget everything when the slot is handed to a new client
+    public void reset() {
+        for (final var frame : frames) {
+            frame.reset(-1);
+        }
+        ackedTick = NO_ACK;
+    }
+
+    public void acknowledge(int tick) {
+        // Acks can arrive out of order, only ever move forward
+        if (tick > ackedTick) {
+            ackedTick = tick;
+        }
+    }
+}
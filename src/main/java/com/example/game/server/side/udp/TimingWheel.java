@@ -0,0 +1,104 @@
+package com.example.game.server.side.udp;
+
+import java.util.Arrays;
+
+// Hashed timing wheel over small integer ids (session slots). Scheduling, cancelling and expiring an
+// id are O(1); advancing only visits the buckets that elapsed since the last call. Buckets are
+// intrusive doubly linked lists in int arrays, so nothing is allocated after construction.
+//
+// Ids whose deadline lies more than one rotation ahead simply stay in their bucket until a later
+// pass finds them due.
+public class TimingWheel {
+
+    private static final int NONE = -1;
+
+    private final long resolutionMillis;
+    private final int mask;
+    private final int[] heads;
+    private final int[] next;
+    private final int[] prev;
+    private final int[] buckets;
+    private final long[] deadlines;
+    private long currentTick;
+
+    public TimingWheel(int capacity, long resolutionMillis, int wheelSize, long now) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+        }
+        this.resolutionMillis = resolutionMillis;
+        this.mask = wheelSize - 1;
+        this.heads = new int[wheelSize];
+        this.next = new int[capacity];
+        this.prev = new int[capacity];
+        this.buckets = new int[capacity];
+        this.deadlines = new long[capacity];
+        Arrays.fill(heads, NONE);
+        Arrays.fill(buckets, NONE);
+        this.currentTick = now / resolutionMillis;
+    }
+
+    // Schedules the id, replacing any earlier deadline
+    public synchronized void schedule(int id, long deadline) {
+        unlink(id);
+        // Never file into a bucket that has already been passed this rotation
+        final var tick = Math.max(deadline / resolutionMillis, currentTick + 1);
+        final var bucket = (int) (tick & mask);
+        deadlines[id] = deadline;
+        buckets[id] = bucket;
+        prev[id] = NONE;
+        next[id] = heads[bucket];
+        if (heads[bucket] != NONE) {
+            prev[heads[bucket]] = id;
+        }
+        heads[bucket] = id;
+    }
+
+    public synchronized void cancel(int id) {
+        unlink(id);
+    }
+
+    public synchronized boolean isScheduled(int id) {
+        return buckets[id] != NONE;
+    }
+
+    // Removes every id whose deadline is <= now from the wheel, writes them to expired and returns
+    // how many there were (at most expired.length; the rest stay due for the next call)
+    public synchronized int advance(long now, int[] expired) {
+        final var targetTick = now / resolutionMillis;
+        var count = 0;
+        // A long stall only needs one full pass over the wheel
+        final var first = Math.max(currentTick, targetTick - mask);
+        for (long tick = first; tick <= targetTick; tick++) {
+            var id = heads[(int) (tick & mask)];
+            while (id != NONE) {
+                final var following = next[id];
+                if (deadlines[id] <= now) {
+                    if (count == expired.length) {
+                        return count;
+                    }
+                    unlink(id);
+                    expired[count++] = id;
+                }
+                id = following;
+            }
+        }
+        currentTick = targetTick;
+        return count;
+    }
+
+    private void unlink(int id) {
+        final var bucket = buckets[id];
+        if (bucket == NONE) {
+            return;
+        }
+        if (prev[id] != NONE) {
+            next[prev[id]] = next[id];
+        } else {
+            heads[bucket] = next[id];
+        }
+        if (next[id] != NONE) {
+            prev[next[id]] = prev[id];
+        }
+        buckets[id] = NONE;
+    }
+}
@@ -1,8 +1,67 @@
 package com.example.game.server.side.udp;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 public class UDPPacket {
+    public static final int HEADER_SIZE = 7;
+
+    // Message types
+    public static final byte DISCONNECT = 0;
+    public static final byte MOVE = 1;
+    public static final byte ACTION = 2;
+    public static final byte SNAPSHOT = 3;
+    public static final byte SNAPSHOT_ACK = 4;
+    public static final byte DELTA_SNAPSHOT = 5;
+    public static final byte BATCH = 6;
+    public static final byte RELIABLE = 7;
+    public static final byte RELIABLE_ACK = 8;
+
+    // Snapshot layout (little-endian): header with playerId 0, tick (4 bytes), entity count (1 byte),
+    // then per entity playerId (4) + x, y, z (3 x 4) + facing (1)
+    public static final int SNAPSHOT_HEADER_SIZE = HEADER_SIZE + 5;
+    public static final int SNAPSHOT_ENTRY_SIZE = 17;
+    public static final int MAX_SNAPSHOT_ENTRIES = 255;
+
+    // Snapshot ack (client -> server): header, tick (4 bytes) of the newest snapshot received in full
+    public static final int SNAPSHOT_ACK_SIZE = HEADER_SIZE + 4;
+
+    // Delta snapshot layout: header with playerId 0, tick (4), baseline tick (4, -1 = none),
+    // part index (1), flags (1, bit 0 = last part), position precision (float 4), entity count (2),
+    // then a bit-packed body. Positions are quantized to round(value / precision). Entities are sorted
+    // by player id; each one is: id delta (var signed), in-baseline bit, then either an unchanged bit
+    // and, if changed, x/y/z deltas against the baseline (var signed) plus facing-changed bit and
+    // facing (8 bits); or, without a baseline, absolute x/y/z (var signed) and facing (8 bits).
+    // A client acks a tick only once it has every part up to the one flagged last.
+    public static final int DELTA_SNAPSHOT_HEADER_SIZE = HEADER_SIZE + 16;
+    public static final int NO_BASELINE = -1;
+    private static final int DELTA_FLAG_LAST_PART = 1;
+    // Worst case for one entity: 38 id bits, 2 flags, 3 x 38 axis bits, 9 facing bits, plus up to
+    // 7 bits still pending in the writer
+    private static final int MAX_DELTA_ENTITY_BYTES = 22;
+
+    // Action payload starts with the action kind (1 byte). A hit claim follows it with the target's
+    // player id (4), the tick the shooter was seeing (4) and the fraction past it (1, in 1/256ths),
+    // then the hit point x, y, z (3 x 4). It is checked against the target's rewound position.
+    public static final byte ACTION_HIT = 1;
+    public static final int HIT_PAYLOAD_SIZE = 22;
+    // Server -> shooter, sent reliably: the kind, then the target (4) and tick (4) of a confirmed hit
+    public static final byte ACTION_HIT_CONFIRMED = 2;
+    public static final int HIT_CONFIRMED_SIZE = HEADER_SIZE + 9;
+
+    // Reliable-ordered channel (see ReliableChannel), both directions. A RELIABLE packet is the header,
+    // its sequence (2), the newest sequence received from the other side (2, 0xFFFF before any) and a
+    // bit field for the 32 sequences before that (4), followed by a complete packet of another type,
+    // used for actions and disconnects. RELIABLE_ACK carries just the header and the two ack fields;
+    // the server queues it in the same tick flush as snapshots, so it shares their datagram.
+    public static final int RELIABLE_HEADER_SIZE = HEADER_SIZE + 8;
+    public static final int RELIABLE_ACK_SIZE = HEADER_SIZE + 6;
+
+    // Batch layout: header with playerId 0, then back-to-back frames of message length (2 bytes) followed
+    // by a complete packet of any other type. Used to coalesce several messages to one client into a
+    // single datagram.
+    public static final int BATCH_FRAME_HEADER_SIZE = 2;
+
     private byte messageType;  // 1 byte for message type
     private short packetLength; // 2 bytes for packet length (optional)
     private int playerId;      // 4 bytes for player ID
@@ -49,9 +108,10 @@ public class UDPPacket {
         this.payload = payload;
     }
 
-    // Method to convert the packet into a byte array to send over UDP
+    // Method to convert the packet into a byte array to send over UDP. Little-endian like everything
+    // the server reads and writes (see PacketView).
     public byte[] toByteArray() {
-        ByteBuffer buffer = ByteBuffer.allocate(packetLength);
+        ByteBuffer buffer = ByteBuffer.allocate(packetLength).order(ByteOrder.LITTLE_ENDIAN);
         buffer.put(messageType);     // 1 byte
         buffer.putShort(packetLength); // 2 bytes
         buffer.putInt(playerId);      // 4 bytes
@@ -62,7 +122,7 @@ public class UDPPacket {
 
     // Static method to convert byte array back into a Packet object
     public static UDPPacket fromByteArray(byte[] data) {
-        ByteBuffer buffer = ByteBuffer.wrap(data);
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
 
         byte messageType = buffer.get();
         short packetLength = buffer.getShort();
@@ -73,4 +133,177 @@ public class UDPPacket {
 
         return new UDPPacket(messageType, playerId, payload, packetLength);
     }
+
+    // Hit confirmation to the shooter, written from position 0 and flipped
+    public static void putHitConfirmed(ByteBuffer buffer, int shooter, int target, int tick) {
+        buffer.clear();
+        buffer.put(ACTION).putShort((short) HIT_CONFIRMED_SIZE).putInt(shooter)
+                .put(ACTION_HIT_CONFIRMED).putInt(target).putInt(tick)
+                .flip();
+    }
+
+    // Starts a snapshot datagram in a little-endian buffer; length and count are patched by finishSnapshot
+    public static void beginSnapshot(ByteBuffer buffer, int tick) {
+        buffer.clear();
+        buffer.put(SNAPSHOT);
+        buffer.putShort((short) 0);
+        buffer.putInt(0);
+        buffer.putInt(tick);
+        buffer.put((byte) 0);
+    }
+
+    public static void putSnapshotEntry(ByteBuffer buffer, int playerId, float x, float y, float z, byte facing) {
+        buffer.putInt(playerId);
+        buffer.putFloat(x);
+        buffer.putFloat(y);
+        buffer.putFloat(z);
+        buffer.put(facing);
+    }
+
+    // Patches length and entity count and flips the buffer so it is ready to send
+    public static void finishSnapshot(ByteBuffer buffer, int entityCount) {
+        buffer.putShort(1, (short) buffer.position());
+        buffer.put(HEADER_SIZE + 4, (byte) entityCount);
+        buffer.flip();
+    }
+
+    public static int snapshotTick(ByteBuffer buffer) {
+        return buffer.getInt(HEADER_SIZE);
+    }
+
+    public static int snapshotEntityCount(ByteBuffer buffer) {
+        return Byte.toUnsignedInt(buffer.get(HEADER_SIZE + 4));
+    }
+
+    public static int snapshotEntryOffset(int index) {
+        return SNAPSHOT_HEADER_SIZE + index * SNAPSHOT_ENTRY_SIZE;
+    }
+
+    // Writes one part of a delta snapshot for frame, starting at entity 'from', into a little-endian
+    // buffer. Returns the index of the first entity that did not fit, frame.size() once done.
+    public static int writeDeltaSnapshot(ByteBuffer buffer, BitWriter bits, SnapshotFrame frame, int from,
+                                         SnapshotFrame baseline, int part, float precision) {
+        buffer.clear();
+        buffer.put(DELTA_SNAPSHOT);
+        buffer.putShort((short) 0);
+        buffer.putInt(0);
+        buffer.putInt(frame.getTick());
+        buffer.putInt(baseline != null ? baseline.getTick() : NO_BASELINE);
+        buffer.put((byte) part);
+        buffer.put((byte) 0);
+        buffer.putFloat(precision);
+        buffer.putShort((short) 0);
+
+        bits.wrap(buffer);
+        var index = from;
+        var previousId = 0;
+        while (index < frame.size() && buffer.remaining() >= MAX_DELTA_ENTITY_BYTES) {
+            final var playerId = frame.playerId(index);
+            bits.writeVarSigned(playerId - previousId);
+            previousId = playerId;
+
+            final var base = baseline != null ? baseline.indexOf(playerId) : -1;
+            bits.writeBoolean(base >= 0);
+            if (base >= 0) {
+                final var dx = frame.x(index) - baseline.x(base);
+                final var dy = frame.y(index) - baseline.y(base);
+                final var dz = frame.z(index) - baseline.z(base);
+                final var facingChanged = frame.facing(index) != baseline.facing(base);
+                final var unchanged = dx == 0 && dy == 0 && dz == 0 && !facingChanged;
+                bits.writeBoolean(unchanged);
+                if (!unchanged) {
+                    bits.writeVarSigned(dx);
+                    bits.writeVarSigned(dy);
+                    bits.writeVarSigned(dz);
+                    bits.writeBoolean(facingChanged);
+                    if (facingChanged) {
+                        bits.writeBits(frame.facing(index), 8);
+                    }
+                }
+            } else {
+                bits.writeVarSigned(frame.x(index));
+                bits.writeVarSigned(frame.y(index));
+                bits.writeVarSigned(frame.z(index));
+                bits.writeBits(frame.facing(index), 8);
+            }
+            index++;
+        }
+        bits.flush();
+
+        buffer.putShort(1, (short) buffer.position());
+        buffer.put(HEADER_SIZE + 9, (byte) (index == frame.size() ? DELTA_FLAG_LAST_PART : 0));
+        buffer.putShort(HEADER_SIZE + 14, (short) (index - from));
+        buffer.flip();
+        return index;
+    }
+
+    // Decodes one delta snapshot part, appending its entities (still quantized) to out. The caller
+    // supplies the frame it kept for deltaBaselineTick(), or null when that is NO_BASELINE.
+    public static void readDeltaSnapshot(ByteBuffer datagram, BitReader bits, SnapshotFrame baseline, SnapshotFrame out) {
+        final var entities = Short.toUnsignedInt(datagram.getShort(HEADER_SIZE + 14));
+        bits.wrap(datagram.position(DELTA_SNAPSHOT_HEADER_SIZE));
+        var previousId = 0;
+        for (int i = 0; i < entities; i++) {
+            final var playerId = previousId + bits.readVarSigned();
+            previousId = playerId;
+
+            if (bits.readBoolean()) {
+                final var base = baseline != null ? baseline.indexOf(playerId) : -1;
+                if (base < 0) {
+                    throw new IllegalArgumentException("Player " + playerId + " missing from baseline tick " + deltaBaselineTick(datagram));
+                }
+                if (bits.readBoolean()) {
+                    out.add(playerId, baseline.x(base), baseline.y(base), baseline.z(base), baseline.facing(base));
+                } else {
+                    final var x = baseline.x(base) + bits.readVarSigned();
+                    final var y = baseline.y(base) + bits.readVarSigned();
+                    final var z = baseline.z(base) + bits.readVarSigned();
+                    final var facing = bits.readBoolean() ? (byte) bits.readBits(8) : baseline.facing(base);
+                    out.add(playerId, x, y, z, facing);
+                }
+            } else {
+                final var x = bits.readVarSigned();
+                final var y = bits.readVarSigned();
+                final var z = bits.readVarSigned();
+                out.add(playerId, x, y, z, (byte) bits.readBits(8));
+            }
+        }
+    }
+
+    public static int deltaTick(ByteBuffer datagram) {
+        return datagram.getInt(HEADER_SIZE);
+    }
+
+    public static int deltaBaselineTick(ByteBuffer datagram) {
+        return datagram.getInt(HEADER_SIZE + 4);
+    }
+
+    public static int deltaPart(ByteBuffer datagram) {
+        return Byte.toUnsignedInt(datagram.get(HEADER_SIZE + 8));
+    }
+
+    public static boolean deltaLastPart(ByteBuffer datagram) {
+        return (datagram.get(HEADER_SIZE + 9) & DELTA_FLAG_LAST_PART) != 0;
+    }
+
+    public static float deltaPrecision(ByteBuffer datagram) {
+        return datagram.getFloat(HEADER_SIZE + 10);
+    }
+
+    public static int quantize(float value, float precision) {
+        return Math.round(value / precision);
+    }
+
+    public static float dequantize(int value, float precision) {
+        return value * precision;
+    }
+
+    public static void writeSnapshotAck(ByteBuffer buffer, int playerId, int tick) {
+        buffer.clear();
+        buffer.put(SNAPSHOT_ACK);
+        buffer.putShort((short) SNAPSHOT_ACK_SIZE);
+        buffer.putInt(playerId);
+        buffer.putInt(tick);
+        buffer.flip();
+    }
 }
@@ -0,0 +1,197 @@
+package com.example.game.server.side.udp;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+// Meters for the UDP pipeline. Receiver threads only bump LongAdders, which the registry reads
+// when it is scraped, so counting a packet costs a striped add and no allocation. Timers and
+// summaries are recorded once per tick on the tick thread.
+@Component
+public class UdpMetrics {
+
+    private final MeterRegistry registry;
+    private final LongAdder packetsReceived = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder decodeFailures = new LongAdder();
+    private final LongAdder packetsRejected = new LongAdder();
+    private final LongAdder messagesQueued = new LongAdder();
+    private final LongAdder bytesQueued = new LongAdder();
+    private final LongAdder datagramsSent = new LongAdder();
+    private final LongAdder sendsDropped = new LongAdder();
+    private final LongAdder dispatchRejected = new LongAdder();
+    private final LongAdder inputDropped = new LongAdder();
+    private final LongAdder hitsConfirmed = new LongAdder();
+    private final LongAdder hitsRejected = new LongAdder();
+    private final LongAdder reliableResent = new LongAdder();
+    private final LongAdder reliableRejected = new LongAdder();
+    private final LongAdder snapshotsDeferred = new LongAdder();
+    private final LongAdder entitiesTrimmed = new LongAdder();
+    private final LongAdder replayRecorded = new LongAdder();
+    private final LongAdder replayDropped = new LongAdder();
+    private final Timer tickDuration;
+    private final DistributionSummary tickFanOut;
+    private final Timer handlerDuration;
+    private final DistributionSummary tickInput;
+    private final DistributionSummary clientRtt;
+
+    public UdpMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        counter("udp.packets.received", "Datagrams read from the UDP sockets", packetsReceived);
+        counter("udp.bytes.received", "Bytes read from the UDP sockets", bytesReceived);
+        counter("udp.packets.decode.failures", "Malformed packets, unknown message types and bad payloads", decodeFailures);
+        counter("udp.packets.rejected", "Packets dropped because the session table was full", packetsRejected);
+        counter("udp.messages.queued", "Messages queued for clients", messagesQueued);
+        counter("udp.bytes.queued", "Message bytes queued for clients, before batching", bytesQueued);
+        counter("udp.datagrams.sent", "Datagrams handed to the socket", datagramsSent);
+        counter("udp.sends.dropped", "Queued datagrams dropped because a client fell behind", sendsDropped);
+        counter("udp.dispatch.rejected", "Messages dropped because handlers were saturated", dispatchRejected);
+        counter("udp.input.dropped", "Moves dropped because a receiver's input ring was full", inputDropped);
+        counter("udp.hits.confirmed", "Hit claims that matched the target's rewound position", hitsConfirmed);
+        counter("udp.hits.rejected", "Hit claims rejected: unknown target, too old or out of tolerance", hitsRejected);
+        counter("udp.reliable.resent", "Reliable messages sent again because no ack came in time", reliableResent);
+        counter("udp.reliable.rejected", "Reliable messages not sent because the client had a full window unacked", reliableRejected);
+        counter("udp.snapshots.deferred", "Snapshots skipped because the client's link is paced to a lower rate", snapshotsDeferred);
+        counter("udp.snapshots.trimmed", "Players left out of snapshots to keep within a client's byte budget", entitiesTrimmed);
+        counter("udp.replay.recorded", "Packets handed to the replay recorder", replayRecorded);
+        counter("udp.replay.dropped", "Packets missing from the replay log because a recorder ring was full", replayDropped);
+        this.tickDuration = Timer.builder("udp.tick.duration")
+                .description("Time spent on one server tick: expiry, snapshots and flush")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .register(registry);
+        this.tickFanOut = DistributionSummary.builder("udp.tick.fanout")
+                .description("Messages queued for clients per tick")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.tickInput = DistributionSummary.builder("udp.tick.input")
+                .description("Moves applied per tick")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.clientRtt = DistributionSummary.builder("udp.client.rtt")
+                .description("Round trip from sending a snapshot to its ack, in milliseconds")
+                .baseUnit("milliseconds")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.handlerDuration = Timer.builder("udp.dispatch.duration")
+                .description("Time spent in a game-logic handler for one message")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    public void bindSessions(IntSupplier active, IntSupplier capacity) {
+        Gauge.builder("udp.sessions.active", active::getAsInt)
+                .description("Connected UDP clients")
+                .register(registry);
+        Gauge.builder("udp.sessions.capacity", capacity::getAsInt)
+                .description("Maximum number of UDP clients")
+                .register(registry);
+    }
+
+    public void bindRooms(IntSupplier rooms) {
+        Gauge.builder("udp.rooms", rooms::getAsInt)
+                .description("Rooms with their own tick, the default room included")
+                .register(registry);
+    }
+
+    public void bindDispatcher(MessageDispatcher dispatcher) {
+        Gauge.builder("udp.dispatch.pending", dispatcher, MessageDispatcher::pending)
+                .description("Messages queued or running on handler threads")
+                .register(registry);
+    }
+
+    public void packetReceived(int bytes) {
+        packetsReceived.increment();
+        bytesReceived.add(bytes);
+    }
+
+    public void decodeFailure() {
+        decodeFailures.increment();
+    }
+
+    public void packetRejected() {
+        packetsRejected.increment();
+    }
+
+    public void messageQueued(int bytes, boolean kept) {
+        messagesQueued.increment();
+        bytesQueued.add(bytes);
+        if (!kept) {
+            sendsDropped.increment();
+        }
+    }
+
+    public void datagramsSent(int count) {
+        datagramsSent.add(count);
+    }
+
+    public void hitValidated(boolean confirmed) {
+        if (confirmed) {
+            hitsConfirmed.increment();
+        } else {
+            hitsRejected.increment();
+        }
+    }
+
+    public void reliableResent(int messages) {
+        reliableResent.add(messages);
+    }
+
+    public void reliableRejected() {
+        reliableRejected.increment();
+    }
+
+    public void snapshotDeferred() {
+        snapshotsDeferred.increment();
+    }
+
+    public void snapshotTrimmed(int entities) {
+        entitiesTrimmed.add(entities);
+    }
+
+    public void clientRtt(long millis) {
+        clientRtt.record(millis);
+    }
+
+    public void replayRecorded() {
+        replayRecorded.increment();
+    }
+
+    public void replayDropped() {
+        replayDropped.increment();
+    }
+
+    public void inputDropped() {
+        inputDropped.increment();
+    }
+
+    public void inputApplied(int moves) {
+        tickInput.record(moves);
+    }
+
+    public void dispatchRejected() {
+        dispatchRejected.increment();
+    }
+
+    public void messageHandled(long durationNanos) {
+        handlerDuration.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void tickCompleted(long durationNanos, int messagesQueued) {
+        tickDuration.record(durationNanos, TimeUnit.NANOSECONDS);
+        tickFanOut.record(messagesQueued);
+    }
+
+    private void counter(String name, String description, LongAdder adder) {
+        FunctionCounter.builder(name, adder, LongAdder::sum)
+                .description(description)
+                .register(registry);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.game.server.side.udp;
+
+import com.example.game.server.side.Application;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+// Without the database there is nowhere to persist player state; the tick's hand-offs are dropped
+@Configuration
+@Profile(Application.UDP_ONLY)
+public class UdpOnlyConfig {
+
+    @Bean
+    public PlayerStateSink playerStateSink() {
+        return PlayerStateSink.NONE;
+    }
+}
@@ -0,0 +1,333 @@
+package com.example.game.server.side.udp;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "udp")
+public class UdpProperties {
+
+    private int port = 8081;
+    // Port everything the server sends goes out from, on a non-blocking socket of its own; 0 picks a free one
+    private int sendPort = 0;
+    // Number of receiver threads, 0 means one per available core
+    private int receivers = 0;
+    private int receiveBufferSize = 1024;
+    private int bufferPoolSize = 64;
+    // Session table slots of the default room, packets from further clients are dropped
+    private int maxSessions = 4096;
+    // Session table slots of a room created without an explicit capacity
+    private int roomCapacity = 16;
+    // Rooms besides the default one that may exist at the same time
+    private int maxRooms = 1000;
+    // Threads shared by the tick loops of all rooms, 0 means one per available core
+    private int tickThreads = 0;
+    // Clients not heard from for this many milliseconds are disconnected
+    private long disconnectTimeout = 10000L;
+    // Server ticks per second, one world snapshot goes out to every client each tick
+    private int tickRate = 30;
+    // Snapshots are split into datagrams no larger than this to stay under the path MTU
+    private int maxDatagramSize = 1200;
+    // Datagrams queued per client between flushes; when full the oldest is dropped
+    private int sendQueueDepth = 8;
+    // Clients only receive players within this distance of their own position, 0 sends the whole world
+    private float interestRadius = 100f;
+    // Quantized, bit-packed snapshots delta encoded against the client's last ack instead of raw floats
+    private boolean deltaSnapshots = true;
+    // World units per quantization step for positions in delta snapshots
+    private float positionPrecision = 0.01f;
+    // Packet tracing at startup: 0 = off, N = one in N packets; plus players traced in full
+    private int traceSampleRate = 0;
+    private List<Integer> tracePlayers = new ArrayList<>();
+    // Ticks of position history kept per player for lag compensation, power of two
+    private int positionHistoryTicks = 32;
+    // Max distance in world units between a claimed hit point and the target's rewound position
+    private float hitTolerance = 1.5f;
+    // How often the tick hands changed player state to persistence, in milliseconds
+    private long stateStageInterval = 1000L;
+    // Moves buffered per receiver between ticks, power of two
+    private int inputRingSize = 8192;
+    // Game-logic messages queued or running on handler threads before receivers start to wait
+    private int dispatchMaxPending = 10000;
+    // How long a receiver waits for handler capacity before dropping the message
+    private long dispatchBlockMillis = 5L;
+    // Reliable messages still unacked after this long are sent again
+    private long reliableResendMillis = 100L;
+    // Per-client snapshot pacing from snapshot acks: RTT and loss shrink the snapshot budget, then the rate
+    private boolean congestionControl = true;
+    // Bytes of snapshot a client gets per tick on a good link, and the floor a congested one is cut to
+    private int snapshotBudget = 4800;
+    private int minSnapshotBudget = 600;
+    // Most ticks between two snapshots to a congested client
+    private int maxSnapshotInterval = 6;
+    // Directory for replay logs of everything received and sent, empty records nothing
+    private String replayDirectory = "";
+    // Bytes per memory-mapped log segment, and per producer ring between the live path and the log writer
+    private int replaySegmentSize = 64 * 1024 * 1024;
+    private int replayRingSize = 1024 * 1024;
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public int getSendPort() {
+        return sendPort;
+    }
+
+    public void setSendPort(int sendPort) {
+        this.sendPort = sendPort;
+    }
+
+    public int getReceivers() {
+        return receivers;
+    }
+
+    public void setReceivers(int receivers) {
+        this.receivers = receivers;
+    }
+
+    public int getReceiveBufferSize() {
+        return receiveBufferSize;
+    }
+
+    public void setReceiveBufferSize(int receiveBufferSize) {
+        this.receiveBufferSize = receiveBufferSize;
+    }
+
+    public int getBufferPoolSize() {
+        return bufferPoolSize;
+    }
+
+    public void setBufferPoolSize(int bufferPoolSize) {
+        this.bufferPoolSize = bufferPoolSize;
+    }
+
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    public void setMaxSessions(int maxSessions) {
+        this.maxSessions = maxSessions;
+    }
+
+    public int getRoomCapacity() {
+        return roomCapacity;
+    }
+
+    public void setRoomCapacity(int roomCapacity) {
+        this.roomCapacity = roomCapacity;
+    }
+
+    public int getMaxRooms() {
+        return maxRooms;
+    }
+
+    public void setMaxRooms(int maxRooms) {
+        this.maxRooms = maxRooms;
+    }
+
+    public int getTickThreads() {
+        return tickThreads;
+    }
+
+    public void setTickThreads(int tickThreads) {
+        this.tickThreads = tickThreads;
+    }
+
+    public long getDisconnectTimeout() {
+        return disconnectTimeout;
+    }
+
+    public void setDisconnectTimeout(long disconnectTimeout) {
+        this.disconnectTimeout = disconnectTimeout;
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    public void setTickRate(int tickRate) {
+        this.tickRate = tickRate;
+    }
+
+    public int getMaxDatagramSize() {
+        return maxDatagramSize;
+    }
+
+    public void setMaxDatagramSize(int maxDatagramSize) {
+        this.maxDatagramSize = maxDatagramSize;
+    }
+
+    public int getSendQueueDepth() {
+        return sendQueueDepth;
+    }
+
+    public void setSendQueueDepth(int sendQueueDepth) {
+        this.sendQueueDepth = sendQueueDepth;
+    }
+
+    public float getInterestRadius() {
+        return interestRadius;
+    }
+
+    public void setInterestRadius(float interestRadius) {
+        this.interestRadius = interestRadius;
+    }
+
+    public boolean isDeltaSnapshots() {
+        return deltaSnapshots;
+    }
+
+    public void setDeltaSnapshots(boolean deltaSnapshots) {
+        this.deltaSnapshots = deltaSnapshots;
+    }
+
+    public float getPositionPrecision() {
+        return positionPrecision;
+    }
+
+    public void setPositionPrecision(float positionPrecision) {
+        this.positionPrecision = positionPrecision;
+    }
+
+    public int getTraceSampleRate() {
+        return traceSampleRate;
+    }
+
+    public void setTraceSampleRate(int traceSampleRate) {
+        this.traceSampleRate = traceSampleRate;
+    }
+
+    public List<Integer> getTracePlayers() {
+        return tracePlayers;
+    }
+
+    public void setTracePlayers(List<Integer> tracePlayers) {
+        this.tracePlayers = tracePlayers;
+    }
+
+    public int getPositionHistoryTicks() {
+        return positionHistoryTicks;
+    }
+
+    public void setPositionHistoryTicks(int positionHistoryTicks) {
+        this.positionHistoryTicks = positionHistoryTicks;
+    }
+
+    public float getHitTolerance() {
+        return hitTolerance;
+    }
+
+    public void setHitTolerance(float hitTolerance) {
+        this.hitTolerance = hitTolerance;
+    }
+
+    public long getStateStageInterval() {
+        return stateStageInterval;
+    }
+
+    public void setStateStageInterval(long stateStageInterval) {
+        this.stateStageInterval = stateStageInterval;
+    }
+
+    public int getInputRingSize() {
+        return inputRingSize;
+    }
+
+    public void setInputRingSize(int inputRingSize) {
+        this.inputRingSize = inputRingSize;
+    }
+
+    public int getDispatchMaxPending() {
+        return dispatchMaxPending;
+    }
+
+    public void setDispatchMaxPending(int dispatchMaxPending) {
+        this.dispatchMaxPending = dispatchMaxPending;
+    }
+
+    public long getDispatchBlockMillis() {
+        return dispatchBlockMillis;
+    }
+
+    public void setDispatchBlockMillis(long dispatchBlockMillis) {
+        this.dispatchBlockMillis = dispatchBlockMillis;
+    }
+
+    public long getReliableResendMillis() {
+        return reliableResendMillis;
+    }
+
+    public void setReliableResendMillis(long reliableResendMillis) {
+        this.reliableResendMillis = reliableResendMillis;
+    }
+
+    public boolean isCongestionControl() {
+        return congestionControl;
+    }
+
+    public void setCongestionControl(boolean congestionControl) {
+        this.congestionControl = congestionControl;
+    }
+
+    public int getSnapshotBudget() {
+        return snapshotBudget;
+    }
+
+    public void setSnapshotBudget(int snapshotBudget) {
+        this.snapshotBudget = snapshotBudget;
+    }
+
+    public int getMinSnapshotBudget() {
+        return minSnapshotBudget;
+    }
+
+    public void setMinSnapshotBudget(int minSnapshotBudget) {
+        this.minSnapshotBudget = minSnapshotBudget;
+    }
+
+    public int getMaxSnapshotInterval() {
+        return maxSnapshotInterval;
+    }
+
+    public void setMaxSnapshotInterval(int maxSnapshotInterval) {
+        this.maxSnapshotInterval = maxSnapshotInterval;
+    }
+
+    public String getReplayDirectory() {
+        return replayDirectory;
+    }
+
+    public void setReplayDirectory(String replayDirectory) {
+        this.replayDirectory = replayDirectory;
+    }
+
+    public int getReplaySegmentSize() {
+        return replaySegmentSize;
+    }
+
+    public void setReplaySegmentSize(int replaySegmentSize) {
+        this.replaySegmentSize = replaySegmentSize;
+    }
+
+    public int getReplayRingSize() {
+        return replayRingSize;
+    }
+
+    public void setReplayRingSize(int replayRingSize) {
+        this.replayRingSize = replayRingSize;
+    }
+
+    public int resolveReceivers() {
+        return receivers > 0 ? receivers : Runtime.getRuntime().availableProcessors();
+    }
+
+    public int resolveTickThreads() {
+        return tickThreads > 0 ? tickThreads : Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.game.server.side.udp;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+
+// Blocking receive loop over a DatagramChannel. Every datagram is read into a pooled direct buffer
+// and handed to the handler in place; the buffer goes back to the pool once the handler returns. The
+// thread waits in the channel's receive rather than a Selector, which would box the socket's fd on
+// every wakeup; close() ends the loop by closing the channel under it.
+public class UdpReceiver implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(UdpReceiver.class);
+
+    @FunctionalInterface
+    public interface PacketHandler {
+        // The buffer is flipped (position 0, limit = datagram length) and only valid during the call
+        void onPacket(ByteBuffer packet, InetSocketAddress sender);
+    }
+
+    private final DatagramChannel channel;
+    private final ByteBufferPool bufferPool;
+    private final PacketHandler handler;
+
+    public UdpReceiver(DatagramChannel channel, ByteBufferPool bufferPool, PacketHandler handler) {
+        this.channel = channel;
+        this.bufferPool = bufferPool;
+        this.handler = handler;
+    }
+
+    @Override
+    public void run() {
+        while (channel.isOpen()) {
+            final var buffer = bufferPool.acquire();
+            try {
+                // The channel caches only the last sender's address: back-to-back datagrams from one peer
+                // allocate nothing, but each datagram from a different peer than the one before costs a new
+                // InetSocketAddress (128 bytes), which with many clients is nearly every packet
+                final var sender = (InetSocketAddress) channel.receive(buffer);
+                buffer.flip();
+                handler.onPacket(buffer, sender);
+            } catch (ClosedChannelException e) {
+                // Closed through close(), possibly while blocked in receive
+                break;
+            } catch (IOException e) {
+                logger.error("UDP receive failed", e);
+            } catch (RuntimeException e) {
+                logger.error("Failed to handle UDP packet", e);
+            } finally {
+                bufferPool.release(buffer);
+            }
+        }
+        logger.info("UDP receiver stopped");
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+}
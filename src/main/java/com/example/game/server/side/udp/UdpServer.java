@@ -1,182 +1,293 @@
 package com.example.game.server.side.udp;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.net.*;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.util.Arrays;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+// Owns the UDP sockets and receiver threads and routes every packet to the room its player is
+// assigned to; players nobody assigned play in the default room. Rooms tick independently on a
+// shared pool, see Room.
 @Service
 public class UdpServer {
 
     private static final Logger logger = LoggerFactory.getLogger(UdpServer.class);
 
-    private static final int UDP_PORT = 8081;
-    private static final long DISCONNECT_TIMEOUT = 10000L;
-    private final Map<String, InetSocketAddress> connectedPlayers = new ConcurrentHashMap<>();
-    private final Map<String, Long> lastHeartbeat = new ConcurrentHashMap<>();
+    public static final int DEFAULT_ROOM = 0;
 
-    private void updateHeartbeat(String clientKey) {
-        lastHeartbeat.put(clientKey, System.currentTimeMillis());
-    }
+    private final List<DatagramChannel> udpChannels = new ArrayList<>();
+    private final List<UdpReceiver> receivers = new ArrayList<>();
+    private final List<Thread> receiverThreads = new ArrayList<>();
+    private final UdpProperties properties;
+    private final PacketTracer tracer;
+    private final ReplayRecorder recorder;
+    private final UdpMetrics metrics;
+    private final MessageDispatcher dispatcher;
+    private final PlayerStateSink stateSink;
+    private final int receiverCount;
+    private final ScheduledExecutorService tickExecutor;
+    private final Room defaultRoom;
+    private final Map<Integer, Room> rooms = new ConcurrentHashMap<>();
+    private final RoomIndex roomIndex = new RoomIndex();
+    private final AtomicInteger nextRoomId = new AtomicInteger(DEFAULT_ROOM + 1);
+    // Per receiver, null when replay recording is off
+    private final RecordRing[] replayRings;
+    private volatile DatagramChannel sendChannel;
 
-    @Scheduled(fixedDelay = 600000) // Run every 10 min
-    public void cleanupInactivePlayers() {
-        checkInactivePlayers();
+    public UdpServer(UdpProperties properties, PacketTracer tracer, ReplayRecorder recorder, UdpMetrics metrics,
+                     MessageDispatcher dispatcher, PlayerStateSink stateSink) {
+        this.properties = properties;
+        this.tracer = tracer;
+        this.recorder = recorder;
+        this.metrics = metrics;
+        this.dispatcher = dispatcher;
+        this.stateSink = stateSink;
+        dispatcher.register(UDPPacket.ACTION, this::handleAction);
+        this.receiverCount = properties.resolveReceivers();
+        final var tickThreads = new AtomicInteger();
+        this.tickExecutor = Executors.newScheduledThreadPool(properties.resolveTickThreads(), runnable -> {
+            final var thread = new Thread(runnable, "udp-tick-" + tickThreads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (recorder.isEnabled()) {
+            this.replayRings = new RecordRing[receiverCount];
+            for (int i = 0; i < receiverCount; i++) {
+                replayRings[i] = recorder.ring("receiver-" + i);
+            }
+        } else {
+            this.replayRings = null;
+        }
+        this.defaultRoom = new Room(DEFAULT_ROOM, "default", properties.getMaxSessions(), properties.getInputRingSize(),
+                receiverCount, properties, tracer, recorder, metrics, dispatcher, stateSink, this::sendChannel, tickExecutor);
+        rooms.put(DEFAULT_ROOM, defaultRoom);
+        metrics.bindSessions(this::sessionCount, this::sessionCapacity);
+        metrics.bindRooms(rooms::size);
     }
 
-    private void checkInactivePlayers() {
-        long currentTime = System.currentTimeMillis();
-        connectedPlayers.entrySet().removeIf(entry -> {
-            String clientKey = entry.getKey();
-            long lastActive = lastHeartbeat.getOrDefault(clientKey, 0L);
-            logger.info("Current time {} Last active {}", currentTime, lastActive);
-            if (currentTime - lastActive > DISCONNECT_TIMEOUT) {
-                lastHeartbeat.remove(clientKey);
-                logger.info("Removing inactive player: {}", clientKey);
-                return true;
+    @PostConstruct
+    public void startUdpServer() throws IOException {
+        final var port = properties.getPort();
+        var receivers = receiverCount;
+        if (receivers > 1 && !reusePortSupported()) {
+            logger.warn("SO_REUSEPORT is not supported on this platform, falling back to a single UDP receiver");
+            receivers = 1;
+        }
+
+        // Every receiver binds its own socket to the same port. The kernel hashes each client's
+        // address/port onto one of them, so packets from a given player are always handled by the
+        // same thread and stay in order.
+        for (int i = 0; i < receivers; i++) {
+            final var channel = DatagramChannel.open();
+            if (receivers > 1) {
+                channel.setOption(StandardSocketOptions.SO_REUSEPORT, true);
             }
-            return false;
-        });
+            channel.bind(new InetSocketAddress(port));
+            udpChannels.add(channel);
+
+            final var bufferPool = new ByteBufferPool(properties.getBufferPoolSize(), properties.getReceiveBufferSize());
+            final var view = new PacketView();
+            final var index = i;
+            final var receiver = new UdpReceiver(channel, bufferPool, (packet, sender) -> onPacket(view.wrap(packet), sender, index));
+            this.receivers.add(receiver);
+            final var thread = new Thread(receiver, "udp-receiver-" + i);
+            receiverThreads.add(thread);
+            thread.start();
+        }
+        // Receiving channels stay blocking, a Selector would box their fd on every wakeup. Ticks send
+        // on a non-blocking channel of their own instead, so a full send buffer leaves datagrams queued
+        // rather than stalling the tick. It cannot share the receivers' port: SO_REUSEPORT would hand
+        // it a share of their packets.
+        final var sender = DatagramChannel.open();
+        sender.configureBlocking(false);
+        sender.bind(new InetSocketAddress(properties.getSendPort()));
+        sendChannel = sender;
+        logger.info("UDP Server is listening on port {} with {} receiver(s), sending from port {}", port, receivers,
+                ((InetSocketAddress) sender.getLocalAddress()).getPort());
+        defaultRoom.start();
     }
 
-    @PostConstruct
-    public void startUdpServer() {
-        new Thread(() -> {
-            try {
-                final var udpSocket = new DatagramSocket(UDP_PORT);
-                logger.info("UDP Server is listening on port {}", UDP_PORT);
-
-                while (true) {
-                    final var receiveBuffer = new byte[1024];
-                    final var packet = new DatagramPacket(receiveBuffer, receiveBuffer.length);
-
-                    udpSocket.receive(packet);
-
-                    final var packetData = packet.getData();
-                    final var length = packet.getLength();
-
-                    // Register the player if not already in the list
-                    final var clientKey = packet.getAddress().getHostAddress() + ":" + packet.getPort();
-                    connectedPlayers.putIfAbsent(clientKey, new InetSocketAddress(packet.getAddress(), packet.getPort()));
-                    updateHeartbeat(clientKey);
-                    logger.info("Connected players : {}", connectedPlayers);
-
-                    logger.info("Received packet with length: {}", length);
-                    logger.info("Received packetData {}", Arrays.toString(packetData));
-                    handlePacket(packetData, length, packet.getAddress(), packet.getPort(), udpSocket);
-                }
-            } catch (Exception e) {
-                logger.error("UDP server failed", e);
+    // Ticks and receivers are finished before the channels they send on and the rings they record
+    // into go away
+    @PreDestroy
+    public void stopUdpServer() throws IOException, InterruptedException {
+        rooms.values().forEach(Room::close);
+        tickExecutor.shutdown();
+        if (!tickExecutor.awaitTermination(1, TimeUnit.SECONDS)) {
+            logger.warn("Room ticks still running at shutdown");
+        }
+        if (sendChannel != null) {
+            sendChannel.close();
+        }
+        for (final var receiver : receivers) {
+            receiver.close();
+        }
+        for (final var thread : receiverThreads) {
+            thread.join(1000);
+        }
+        if (replayRings != null) {
+            for (final var ring : replayRings) {
+                recorder.release(ring);
             }
-        }).start();
-    }
-
-    private void handlePacket(byte[] data, int length, InetAddress senderAddress, int senderPort, DatagramSocket udpSocket) {
-        final var buffer = ByteBuffer.wrap(data, 0, length).order(ByteOrder.LITTLE_ENDIAN);
-        final var messageType = buffer.get(0);
-        final var packetLength = buffer.getShort(1); // now correctly reads 2 bytes
-        final var playerId = buffer.getInt(3);
-
-        // Payload starts at byte 7, length = packetLength - header(7)
-        final var payloadLength = packetLength - 7;
-        final var payload = Arrays.copyOfRange(data, 7, 7 + payloadLength);
-
-        // Extract floats from first 12 bytes
-        final var payloadBuffer = ByteBuffer.wrap(payload).order(ByteOrder.LITTLE_ENDIAN);
-        final var x = payloadBuffer.getFloat(0);
-        final var y = payloadBuffer.getFloat(4);
-        final var z = payloadBuffer.getFloat(8);
-
-        // Last byte is facing direction
-        final var facing = payload[12]; // 0 = right, 1 = left
-
-        logger.info("Message type {}", messageType);
-        logger.info("Packet length {}", packetLength);
-        logger.info("PlayerId {}", playerId);
-        logger.info("X={}, Y={}, Z={}, Facing={}", x, y, z, facing);
-
-        final var receivedPacket = new UDPPacket(messageType, playerId, payload, packetLength);
-
-        switch (messageType) {
-            case 0:
-                final var clientKey = senderAddress.getHostAddress() + ":" + senderPort;
-                connectedPlayers.remove(clientKey);
-                logger.info("Player disconnected: {}", clientKey);
-                break;
-            case 1:
-                handleMove(receivedPacket, senderAddress, senderPort, udpSocket);
-                break;
-            case 2:
-                handleAction(receivedPacket);
-                break;
-            default:
-                logger.info("Unknown message type");
-        }
-    }
-
-    // Handle movement (example)
-    private void handleMove(UDPPacket packet, InetAddress senderAddress, int senderPort, DatagramSocket udpSocket) {
-        final var payloadBuffer = ByteBuffer.wrap(packet.getPayload());
-        payloadBuffer.order(ByteOrder.LITTLE_ENDIAN); // Ensure correct byte order (Little Endian)
-        logger.info("Received Payload: {}", Arrays.toString(packet.getPayload()));
-
-        // Read the first 12 bytes as a Vector3 (3 floats)
-        if (payloadBuffer.remaining() >= 12) {
-            final var x = payloadBuffer.getFloat();
-            final var y = payloadBuffer.getFloat();
-            final var z = payloadBuffer.getFloat();
-
-            final var responseBytes = createResponsePacket(packet);
-            logger.info("Response bytes sending back to client : {}", Arrays.toString(responseBytes));
-            final var senderKey = senderAddress.getHostAddress() + ":" + senderPort;
-
-            connectedPlayers.forEach((clientKey, clientAddress) -> {
-                if (!clientKey.equals(senderKey)) { // Exclude sender
-                    try {
-                        DatagramPacket packet1 = new DatagramPacket(responseBytes, responseBytes.length, clientAddress.getAddress(), clientAddress.getPort());
-                        udpSocket.send(packet1);
-                    } catch (IOException e) {
-                        logger.error("Failed to send packet to {} :{}", clientKey, e.getMessage());
-                    }
-                }
-            });
-
-            logger.info("Received movement data: x={} y={} z={}", x, y, z);
+        }
+    }
+
+    // New empty room ticking on the shared pool; capacity 0 uses the configured room capacity
+    public Room createRoom(String name, int capacity) {
+        return createRoom(name, capacity, true);
+    }
+
+    // Package-private so replay can create rooms it ticks itself
+    synchronized Room createRoom(String name, int capacity, boolean start) {
+        // The default room does not count
+        if (rooms.size() > properties.getMaxRooms()) {
+            throw new IllegalStateException("Room limit of " + properties.getMaxRooms() + " reached");
+        }
+        final var id = nextRoomId.getAndIncrement();
+        final var roomCapacity = capacity > 0 ? capacity : properties.getRoomCapacity();
+        final var room = new Room(id, name != null ? name : "room-" + id, roomCapacity, roomInputRingSize(roomCapacity),
+                receiverCount, properties, tracer, recorder, metrics, dispatcher, stateSink, this::sendChannel, tickExecutor);
+        rooms.put(id, room);
+        if (start) {
+            room.start();
+        }
+        logger.info("Created room {} ({}) for {} players", id, room.name(), roomCapacity);
+        return room;
+    }
+
+    // Moves the player's next packets to the room; its session in the previous room ends now
+    public void assignPlayer(int playerId, int roomId) {
+        final var room = rooms.get(roomId);
+        if (room == null) {
+            throw new IllegalArgumentException("No room " + roomId);
+        }
+        final var previous = roomOf(playerId);
+        if (room == defaultRoom) {
+            roomIndex.remove(playerId);
         } else {
-            logger.info("Error: Payload size is incorrect. Expected 12 bytes for Vector3.");
+            roomIndex.put(playerId, room);
+        }
+        if (previous != room) {
+            previous.evict(playerId);
+        }
+    }
+
+    // Stops the room; its players fall back to the default room with their next packet
+    public boolean closeRoom(int roomId) {
+        if (roomId == DEFAULT_ROOM) {
+            throw new IllegalArgumentException("The default room cannot be closed");
+        }
+        final var room = rooms.remove(roomId);
+        if (room == null) {
+            return false;
         }
+        roomIndex.removeRoom(room);
+        room.close();
+        logger.info("Closed room {} ({})", roomId, room.name());
+        return true;
     }
 
-    private void handleAction(UDPPacket packet) {
-        logger.info("Processing action for player {}", packet.getPlayerId());
+    public Room room(int roomId) {
+        return rooms.get(roomId);
     }
 
-    public byte[] createResponsePacket(UDPPacket packet) {
-        final var messageType = packet.getMessageType();
-        final var playerId = packet.getPlayerId();
-        final var payload = packet.getPayload();
-        logger.info("Creating buffer with payload length : {}", packet.getPacketLength());
-        short packetLength = packet.getPacketLength();
-        final var buffer = ByteBuffer.allocate(packetLength);
-        // TODO not a todo :) but this one is crucial in order to maintain same order of bytes as when received,
-        //  be careful with modifying this
-        buffer.order(ByteOrder.LITTLE_ENDIAN);
-        buffer.put(messageType);
-        buffer.putShort(packetLength);
-        buffer.putInt(playerId);
-        buffer.put(payload);
+    public Collection<Room> rooms() {
+        return rooms.values();
+    }
 
-        logger.info("Buffer array to be sent {}", buffer.array());
+    public Room roomOf(int playerId) {
+        final var room = roomIndex.find(playerId);
+        return room != null ? room : defaultRoom;
+    }
 
-        return buffer.array();
+    public int sessionCount() {
+        var count = 0;
+        for (final var room : rooms.values()) {
+            count += room.size();
+        }
+        return count;
+    }
+
+    public int sessionCapacity() {
+        var capacity = 0;
+        for (final var room : rooms.values()) {
+            capacity += room.capacity();
+        }
+        return capacity;
+    }
+
+    // Package-private so benchmarks can drive a room without sockets
+    Room defaultRoom() {
+        return defaultRoom;
+    }
+
+    private DatagramChannel sendChannel() {
+        return sendChannel;
+    }
+
+    // A few moves per player per tick with room to spare, instead of the default room's large ring
+    private int roomInputRingSize(int capacity) {
+        final var wanted = Integer.highestOneBit(Math.max(64, capacity * 8) - 1) << 1;
+        return Math.min(wanted, properties.getInputRingSize());
+    }
+
+    private static boolean reusePortSupported() throws IOException {
+        try (final var probe = DatagramChannel.open()) {
+            return probe.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT);
+        }
+    }
+
+    // Package-private so benchmarks can drive the receive path without sockets
+    void onPacket(PacketView packet, InetSocketAddress sender, int receiver) {
+        metrics.packetReceived(packet.length());
+        if (!packet.isValid()) {
+            metrics.decodeFailure();
+            if (logger.isDebugEnabled()) {
+                logger.debug("Dropping malformed packet of {} bytes from {}", packet.length(), sender);
+            }
+            return;
+        }
+        final var room = roomOf(packet.playerId());
+        if (replayRings != null) {
+            recorder.record(replayRings[receiver], ReplayLog.IN, room.id(), receiver, 0, sender, packet.buffer(), packet.length());
+        }
+        room.onPacket(packet, sender, receiver);
+    }
+
+    // Runs on a virtual thread, serialized with the player's other actions
+    private void handleAction(int playerId, ByteBuffer payload) {
+        if (payload.remaining() >= UDPPacket.HIT_PAYLOAD_SIZE && payload.get(0) == UDPPacket.ACTION_HIT) {
+            // Both players are looked up in the shooter's room; a target elsewhere is not hittable
+            final var room = roomOf(playerId);
+            final var confirmed = room.validateHit(payload);
+            metrics.hitValidated(confirmed);
+            if (confirmed) {
+                // The shooter learns of the hit within a round trip even if a datagram is lost
+                final var confirmation = ByteBuffer.allocate(UDPPacket.HIT_CONFIRMED_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                UDPPacket.putHitConfirmed(confirmation, playerId, payload.getInt(1), payload.getInt(5));
+                room.sendReliable(playerId, confirmation);
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("Hit by player {} on player {} {}", playerId, payload.getInt(1), confirmed ? "confirmed" : "rejected");
+            }
+        } else if (logger.isDebugEnabled()) {
+            logger.debug("Processing action for player {} ({} bytes)", playerId, payload.remaining());
+        }
     }
 }
@@ -0,0 +1,11 @@
+package com.example.game.server.side.websocket;
+
+// One change to the lobby, broadcast on /topic/lobby-state. Sequences are consecutive, so a client
+// that sees a gap has missed an event and should resync from /app/lobby-state.
+public record LobbyEvent(long sequence, Type type, String playerId) {
+
+    public enum Type {
+        JOIN,
+        LEAVE
+    }
+}
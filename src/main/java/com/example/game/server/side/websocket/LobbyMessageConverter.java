@@ -0,0 +1,79 @@
+package com.example.game.server.side.websocket;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.util.MimeType;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+// Compact encoding of lobby messages, little-endian like the UDP protocol:
+//   event:    kind u8 (0 = join, 1 = leave), sequence i64, player id
+//   snapshot: kind u8 (2), sequence i64, count i32, then count player ids
+// where a player id is a u16 byte length followed by UTF-8. Only lobby types are handled; everything
+// else falls through to the JSON converter.
+public class LobbyMessageConverter extends AbstractMessageConverter {
+
+    public static final MimeType MIME_TYPE = new MimeType("application", "x-lobby");
+
+    static final byte KIND_JOIN = 0;
+    static final byte KIND_LEAVE = 1;
+    static final byte KIND_SNAPSHOT = 2;
+
+    public LobbyMessageConverter() {
+        super(MIME_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == LobbyEvent.class || clazz == LobbySnapshot.class;
+    }
+
+    @Override
+    protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+        if (payload instanceof LobbyEvent event) {
+            final var id = idBytes(event.playerId());
+            return buffer(1 + 8 + 2 + id.length)
+                    .put(event.type() == LobbyEvent.Type.JOIN ? KIND_JOIN : KIND_LEAVE)
+                    .putLong(event.sequence())
+                    .putShort((short) id.length)
+                    .put(id)
+                    .array();
+        }
+        final var snapshot = (LobbySnapshot) payload;
+        final var ids = new byte[snapshot.ids().size()][];
+        var length = 1 + 8 + 4;
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = idBytes(snapshot.ids().get(i));
+            length += 2 + ids[i].length;
+        }
+        final var buffer = buffer(length)
+                .put(KIND_SNAPSHOT)
+                .putLong(snapshot.sequence())
+                .putInt(ids.length);
+        for (final var id : ids) {
+            buffer.putShort((short) id.length).put(id);
+        }
+        return buffer.array();
+    }
+
+    // Server to client only
+    @Override
+    protected boolean canConvertFrom(Message<?> message, Class<?> targetClass) {
+        return false;
+    }
+
+    private static byte[] idBytes(String playerId) {
+        final var bytes = playerId.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Player id too long to encode: " + bytes.length + " bytes");
+        }
+        return bytes;
+    }
+
+    private static ByteBuffer buffer(int length) {
+        return ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
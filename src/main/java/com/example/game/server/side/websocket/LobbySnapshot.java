@@ -0,0 +1,7 @@
+package com.example.game.server.side.websocket;
+
+import java.util.List;
+
+// Full lobby as of 'sequence'; events up to and including it are already reflected in ids
+public record LobbySnapshot(long sequence, List<String> ids) {
+}
@@ -0,0 +1,138 @@
+package com.example.game.server.side.websocket;
+
+import com.example.game.server.side.Application;
+import com.example.game.server.side.cluster.ClusterMessage;
+import com.example.game.server.side.cluster.ClusterRelay;
+import org.springframework.context.annotation.Profile;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Players in the lobby, connected to this node or, through the cluster relay, to any other node.
+// Joins and leaves are broadcast as numbered events of constant size instead of the whole player
+// list, so a join costs the same however full the lobby is. Changes are numbered and published
+// under one lock, which keeps the numbering gap-free and in publish order, and lets a snapshot name
+// exactly the last event it includes. Sequences are per node: a client only ever talks to one.
+@Component
+@Profile("!" + Application.UDP_ONLY)
+public class LobbyState implements ClusterRelay.Listener {
+
+    public static final String EVENTS_DESTINATION = "/topic/lobby-state";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ClusterRelay relay;
+    private final Map<String, String> playersBySession = new HashMap<>();
+    // Players of other nodes by node, then session
+    private final Map<String, Map<String, String>> remotePlayers = new HashMap<>();
+    private int remoteCount;
+    private long sequence;
+
+    public LobbyState(SimpMessagingTemplate messagingTemplate, ClusterRelay relay) {
+        this.messagingTemplate = messagingTemplate;
+        this.relay = relay;
+        relay.subscribe(this);
+    }
+
+    public synchronized void join(String sessionId, String playerId) {
+        final var previous = playersBySession.put(sessionId, playerId);
+        if (playerId.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            publish(LobbyEvent.Type.LEAVE, previous);
+        }
+        publish(LobbyEvent.Type.JOIN, playerId);
+        relay.publish(ClusterMessage.join(relay.nodeId(), sessionId, playerId));
+    }
+
+    // Returns the player that left, or null if the session never joined
+    public synchronized String leave(String sessionId) {
+        final var playerId = playersBySession.remove(sessionId);
+        if (playerId != null) {
+            publish(LobbyEvent.Type.LEAVE, playerId);
+            relay.publish(ClusterMessage.leave(relay.nodeId(), sessionId));
+        }
+        return playerId;
+    }
+
+    public synchronized LobbySnapshot snapshot() {
+        final var ids = new ArrayList<String>(playersBySession.size() + remoteCount);
+        ids.addAll(playersBySession.values());
+        remotePlayers.values().forEach(players -> ids.addAll(players.values()));
+        return new LobbySnapshot(sequence, ids);
+    }
+
+    public synchronized int size() {
+        return playersBySession.size() + remoteCount;
+    }
+
+    // Players connected to this node only
+    public synchronized int localSize() {
+        return playersBySession.size();
+    }
+
+    @Override
+    public synchronized void onMessage(ClusterMessage message) {
+        switch (message.type()) {
+            case JOIN -> remoteJoin(message.origin(), message.key(), message.value());
+            case LEAVE -> remoteLeave(message.origin(), message.key());
+            case SYNC -> remoteSync(message.origin(), message.players());
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onNodeDown(String nodeId) {
+        remoteSync(nodeId, Map.of());
+    }
+
+    @Override
+    public synchronized List<ClusterMessage> syncMessages() {
+        return List.of(ClusterMessage.sync(relay.nodeId(), playersBySession));
+    }
+
+    private void remoteJoin(String nodeId, String sessionId, String playerId) {
+        final var previous = remotePlayers.computeIfAbsent(nodeId, node -> new HashMap<>()).put(sessionId, playerId);
+        if (playerId.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            publish(LobbyEvent.Type.LEAVE, previous);
+        } else {
+            remoteCount++;
+        }
+        publish(LobbyEvent.Type.JOIN, playerId);
+    }
+
+    private void remoteLeave(String nodeId, String sessionId) {
+        final var players = remotePlayers.get(nodeId);
+        final var playerId = players != null ? players.remove(sessionId) : null;
+        if (playerId != null) {
+            remoteCount--;
+            publish(LobbyEvent.Type.LEAVE, playerId);
+        }
+    }
+
+    // Replaces what is known about a node, publishing only the differences
+    private void remoteSync(String nodeId, Map<String, String> players) {
+        final var known = remotePlayers.getOrDefault(nodeId, Map.of());
+        for (final var sessionId : List.copyOf(known.keySet())) {
+            if (!players.containsKey(sessionId)) {
+                remoteLeave(nodeId, sessionId);
+            }
+        }
+        players.forEach((sessionId, playerId) -> remoteJoin(nodeId, sessionId, playerId));
+        if (players.isEmpty()) {
+            remotePlayers.remove(nodeId);
+        }
+    }
+
+    private void publish(LobbyEvent.Type type, String playerId) {
+        messagingTemplate.convertAndSend(EVENTS_DESTINATION, new LobbyEvent(++sequence, type, playerId));
+    }
+}
@@ -1,10 +1,13 @@
 package com.example.game.server.side.websocket;
 
+import com.example.game.server.side.Application;
+import org.springframework.context.annotation.Profile;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 @Component
+@Profile("!" + Application.UDP_ONLY)
 public class TestPublisher {
 
     private final SimpMessagingTemplate messagingTemplate;
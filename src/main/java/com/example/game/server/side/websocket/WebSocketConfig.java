@@ -1,19 +1,45 @@
 package com.example.game.server.side.websocket;
 
+import com.example.game.server.side.Application;
+import com.example.game.server.side.cluster.ClusterTopicRelay;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.messaging.converter.MessageConverter;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
+import java.util.List;
+
 @Configuration
+@Profile("!" + Application.UDP_ONLY)
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final WebSocketProperties properties;
+    private final ClusterTopicRelay topicRelay;
+
+    public WebSocketConfig(WebSocketProperties properties, ClusterTopicRelay topicRelay) {
+        this.properties = properties;
+        this.topicRelay = topicRelay;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         config.enableSimpleBroker("/topic");
         config.setApplicationDestinationPrefixes("/app");
+        // Lobby events carry consecutive sequence numbers; keep them in order per session
+        config.setPreservePublishOrder(true);
+        // /topic messages sent by the server also go to the other nodes of the cluster
+        config.configureBrokerChannel().interceptors(topicRelay);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Clients may also send straight to /topic
+        registration.interceptors(topicRelay);
     }
 
     @Override
@@ -21,4 +47,14 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/game-websocket")
                 .addInterceptors(new CustomHandshakeInterceptor()); // WebSocket endpoint
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        if (properties.isBinaryLobby()) {
+            // Ahead of JSON so lobby types are encoded compactly; other payloads are not claimed by it
+            messageConverters.add(new LobbyMessageConverter());
+        }
+        // Keep the default converters
+        return true;
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.game.server.side.websocket;
 
+import com.example.game.server.side.Application;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
@@ -11,22 +15,33 @@ import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 import org.springframework.web.socket.messaging.SessionSubscribeEvent;
 import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Component
+@Profile("!" + Application.UDP_ONLY)
 public class WebSocketEventListener {
 
     private static final Logger logger = LoggerFactory.getLogger(WebSocketEventListener.class);
 
     // A map to track subscribers by sessionId (or customize as needed)
-    private final Map<String, String> subscriptions = new HashMap<>();
-    private final Map<String, String> podLocalPlayers = new ConcurrentHashMap<>();
+    // Concurrent since the metrics gauges read its size from the scrape thread
+    private final Map<String, String> subscriptions = new ConcurrentHashMap<>();
+    private final LobbyState lobby;
     private final SimpMessagingTemplate messagingTemplate;
 
-    public WebSocketEventListener(SimpMessagingTemplate messagingTemplate) {
+    public WebSocketEventListener(LobbyState lobby, SimpMessagingTemplate messagingTemplate, MeterRegistry registry) {
+        this.lobby = lobby;
         this.messagingTemplate = messagingTemplate;
+        Gauge.builder("websocket.players.connected", lobby, LobbyState::localSize)
+                .description("Players connected to this pod over WebSocket")
+                .register(registry);
+        Gauge.builder("websocket.players.lobby", lobby, LobbyState::size)
+                .description("Players in the lobby across the cluster")
+                .register(registry);
+        Gauge.builder("websocket.subscriptions", subscriptions, Map::size)
+                .description("Sessions with an active STOMP subscription")
+                .register(registry);
     }
 
     @EventListener
@@ -40,11 +55,8 @@ public class WebSocketEventListener {
             headerAccessor.getSessionAttributes().put("sessionId", sessionId);
             // Consider using that one instead of sending connection message ;)
             logger.info("Player connected: {}  (session {})", playerId, sessionId);
-            podLocalPlayers.put(sessionId, playerId);
-            final var payload = new HashMap<>();
-            payload.put("ids", podLocalPlayers.values());
-            logger.info("Values = {}", podLocalPlayers.values());
-            messagingTemplate.convertAndSend("/topic/lobby-state", payload);
+            // Subscribers get a join event; the full list is only sent when a client asks for it
+            lobby.join(sessionId, playerId);
         } else {
             logger.info("Received a new WebSocket connection with session ID: {}", sessionId);
         }
@@ -83,7 +95,7 @@ public class WebSocketEventListener {
         if (playerIdObj != null) {
             final var playerId = playerIdObj.toString();
             logger.info("Player disconnected with playerId: {} and sessionId: {}", playerId, sessionId);
-            podLocalPlayers.remove(sessionId);
+            lobby.leave(sessionId);
             messagingTemplate.convertAndSend("/topic/players/disconnected", playerId);
         } else {
             logger.info("Unknown player disconnected, session ID: {}", sessionId);
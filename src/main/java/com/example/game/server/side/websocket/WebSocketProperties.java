@@ -0,0 +1,18 @@
+package com.example.game.server.side.websocket;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "websocket")
+public class WebSocketProperties {
+
+    // Send lobby events and snapshots as compact little-endian frames instead of JSON
+    private boolean binaryLobby = false;
+
+    public boolean isBinaryLobby() {
+        return binaryLobby;
+    }
+
+    public void setBinaryLobby(boolean binaryLobby) {
+        this.binaryLobby = binaryLobby;
+    }
+}
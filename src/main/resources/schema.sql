@@ -0,0 +1,10 @@
+CREATE TABLE IF NOT EXISTS tbl_player_state (
+    player_id  INTEGER PRIMARY KEY,
+    x          REAL        NOT NULL,
+    y          REAL        NOT NULL,
+    z          REAL        NOT NULL,
+    facing     SMALLINT    NOT NULL,
+    last_seen  TIMESTAMPTZ NOT NULL,
+    moves      BIGINT      NOT NULL DEFAULT 0,
+    updated_at TIMESTAMPTZ NOT NULL
+);
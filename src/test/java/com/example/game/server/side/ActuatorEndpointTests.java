@@ -0,0 +1,42 @@
+package com.example.game.server.side;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Scrapers and probes carry no credentials; the UDP-only profile needs no database to serve them
+@SpringBootTest(properties = "udp.port=0")
+@ActiveProfiles(Application.UDP_ONLY)
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class ActuatorEndpointTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void prometheusIsScrapedWithoutCredentials() throws Exception {
+		mockMvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("udp_packets_received_total")))
+				.andExpect(content().string(containsString("udp_tick_duration_seconds")));
+	}
+
+	@Test
+	void healthIsOpenAndMetricsNeedCredentials() throws Exception {
+		mockMvc.perform(get("/actuator/health"))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/actuator/metrics"))
+				.andExpect(status().isUnauthorized());
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.example.game.server.side;
+
+import com.example.game.server.side.database.UserRepository;
+import com.example.game.server.side.udp.UdpServer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Starts without a database: nothing in the UDP-only profile may need one
+@SpringBootTest(properties = {"udp.port=0", "spring.security.user.name=admin", "spring.security.user.password=secret"})
+@ActiveProfiles(Application.UDP_ONLY)
+@AutoConfigureMockMvc
+class UdpOnlyApplicationTests {
+
+	@Autowired
+	private ApplicationContext context;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void contextLoadsWithoutDatabaseOrBroker() {
+		assertNotNull(context.getBean(UdpServer.class));
+		assertEquals(0, context.getBeanNamesForType(UserRepository.class).length);
+		assertEquals(0, context.getBeanNamesForType(SimpMessagingTemplate.class).length);
+	}
+
+	@Test
+	void adminApiKeepsItsAuthentication() throws Exception {
+		mockMvc.perform(get("/api/rooms"))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(put("/api/udp/trace/sample-rate/0"))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/api/rooms").with(httpBasic("admin", "secret")))
+				.andExpect(status().isOk());
+		mockMvc.perform(put("/api/udp/trace/sample-rate/0").with(httpBasic("admin", "secret")))
+				.andExpect(status().isOk());
+	}
+
+}
@@ -0,0 +1,99 @@
+package com.example.game.server.side.cluster;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class SocketRelayTest {
+
+    private static class RecordingListener implements ClusterRelay.Listener {
+
+        final BlockingQueue<ClusterMessage> messages = new LinkedBlockingQueue<>();
+        final BlockingQueue<String> down = new LinkedBlockingQueue<>();
+        List<ClusterMessage> sync = List.of();
+
+        @Override
+        public void onMessage(ClusterMessage message) {
+            messages.add(message);
+        }
+
+        @Override
+        public void onNodeDown(String nodeId) {
+            down.add(nodeId);
+        }
+
+        @Override
+        public List<ClusterMessage> syncMessages() {
+            return sync;
+        }
+    }
+
+    private SocketRelay a;
+    private SocketRelay b;
+
+    @AfterEach
+    void close() {
+        if (a != null) {
+            a.close();
+        }
+        if (b != null) {
+            b.close();
+        }
+    }
+
+    @Test
+    void peerReceivesSyncThenPublishedMessagesAndSeesTheNodeGoDown() throws Exception {
+        final var received = new RecordingListener();
+        a = new SocketRelay("a", properties(0, List.of()));
+        a.subscribe(received);
+        a.start();
+
+        final var sender = new RecordingListener();
+        sender.sync = List.of(ClusterMessage.sync("b", Map.of("s1", "alice")));
+        b = new SocketRelay("b", properties(0, List.of("localhost:" + a.port())));
+        b.subscribe(sender);
+        b.start();
+
+        final var sync = next(received);
+        assertEquals(ClusterMessage.Type.SYNC, sync.type());
+        assertEquals(Map.of("s1", "alice"), sync.players());
+
+        b.publish(ClusterMessage.join("b", "s2", "bob"));
+        b.publish(ClusterMessage.topic("b", "/topic/logs", "text/plain", new byte[]{1, 2, 3}));
+        final var join = next(received);
+        assertEquals(ClusterMessage.Type.JOIN, join.type());
+        assertEquals("s2", join.key());
+        assertEquals("bob", join.value());
+        final var topic = next(received);
+        assertEquals("/topic/logs", topic.key());
+        assertEquals("text/plain", topic.value());
+        assertArrayEquals(new byte[]{1, 2, 3}, topic.payload());
+
+        b.close();
+        assertEquals("b", received.down.poll(5, TimeUnit.SECONDS));
+    }
+
+    private static ClusterMessage next(RecordingListener listener) throws InterruptedException {
+        final var message = listener.messages.poll(5, TimeUnit.SECONDS);
+        assertNotNull(message, "no message within 5 s");
+        return message;
+    }
+
+    private static ClusterProperties properties(int port, List<String> peers) {
+        final var properties = new ClusterProperties();
+        properties.setMode(ClusterProperties.Mode.SOCKET);
+        properties.setPort(port);
+        properties.setPeers(peers);
+        properties.setReconnectMillis(50);
+        return properties;
+    }
+}
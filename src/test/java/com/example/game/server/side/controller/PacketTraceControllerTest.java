@@ -0,0 +1,60 @@
+package com.example.game.server.side.controller;
+
+import com.example.game.server.side.security.WebSecurityConfig;
+import com.example.game.server.side.udp.PacketTracer;
+import com.example.game.server.side.udp.UdpProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(value = PacketTraceController.class,
+        properties = {"spring.security.user.name=admin", "spring.security.user.password=secret"})
+@Import({WebSecurityConfig.class, PacketTracer.class})
+@EnableConfigurationProperties(UdpProperties.class)
+class PacketTraceControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PacketTracer packetTracer;
+
+    @Test
+    void switchesTracingWithBasicCredentials() throws Exception {
+        mockMvc.perform(put("/api/udp/trace/sample-rate/1").with(httpBasic("admin", "secret")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sampleRate").value(1));
+        assertEquals(1, packetTracer.getSampleRate());
+        assertTrue(packetTracer.shouldTrace(42));
+
+        mockMvc.perform(put("/api/udp/trace/sample-rate/0").with(httpBasic("admin", "secret")))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/udp/trace/players/42").with(httpBasic("admin", "secret")))
+                .andExpect(status().isOk());
+        assertTrue(packetTracer.shouldTrace(42));
+        mockMvc.perform(delete("/api/udp/trace/players/42").with(httpBasic("admin", "secret")))
+                .andExpect(status().isOk());
+        assertFalse(packetTracer.shouldTrace(42));
+    }
+
+    @Test
+    void rejectsAnonymousAndWrongCredentials() throws Exception {
+        mockMvc.perform(put("/api/udp/trace/sample-rate/1"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(put("/api/udp/trace/sample-rate/1").with(httpBasic("admin", "wrong")))
+                .andExpect(status().isUnauthorized());
+        assertEquals(0, packetTracer.getSampleRate());
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.game.server.side.controller;
+
+import com.example.game.server.side.security.WebSecurityConfig;
+import com.example.game.server.side.udp.MessageDispatcher;
+import com.example.game.server.side.udp.PacketTracer;
+import com.example.game.server.side.udp.PlayerStateSink;
+import com.example.game.server.side.udp.ReplayRecorder;
+import com.example.game.server.side.udp.UdpMetrics;
+import com.example.game.server.side.udp.UdpProperties;
+import com.example.game.server.side.udp.UdpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(value = RoomController.class,
+        properties = {"spring.security.user.name=admin", "spring.security.user.password=secret"})
+@Import({WebSecurityConfig.class, RoomControllerTest.UdpServerConfig.class})
+class RoomControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UdpServer udpServer;
+
+    @Test
+    void createsAssignsAndClosesRooms() throws Exception {
+        mockMvc.perform(post("/api/rooms").param("name", "match").param("capacity", "4").with(httpBasic("admin", "secret")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("match"))
+                .andExpect(jsonPath("$.capacity").value(4));
+        final var room = udpServer.rooms().stream().filter(candidate -> candidate.name().equals("match")).findFirst().orElseThrow();
+
+        mockMvc.perform(get("/api/rooms").with(httpBasic("admin", "secret")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+
+        mockMvc.perform(put("/api/rooms/{id}/players/{playerId}", room.id(), 7).with(httpBasic("admin", "secret")))
+                .andExpect(status().isOk());
+        assertEquals(room, udpServer.roomOf(7));
+
+        mockMvc.perform(delete("/api/rooms/{id}", room.id()).with(httpBasic("admin", "secret")))
+                .andExpect(status().isNoContent());
+        assertNull(udpServer.room(room.id()));
+    }
+
+    @Test
+    void rejectsAnonymousCalls() throws Exception {
+        mockMvc.perform(get("/api/rooms"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/rooms").param("name", "anonymous"))
+                .andExpect(status().isUnauthorized());
+        assertEquals(1, udpServer.rooms().size());
+    }
+
+    @TestConfiguration
+    static class UdpServerConfig {
+
+        @Bean
+        UdpServer udpServer() {
+            final var properties = new UdpProperties();
+            properties.setPort(0);
+            final var metrics = new UdpMetrics(new SimpleMeterRegistry());
+            return new UdpServer(properties, new PacketTracer(properties), new ReplayRecorder(properties, metrics), metrics,
+                    new MessageDispatcher(properties, metrics), PlayerStateSink.NONE);
+        }
+    }
+}
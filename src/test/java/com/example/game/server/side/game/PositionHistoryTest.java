@@ -0,0 +1,88 @@
+package com.example.game.server.side.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PositionHistoryTest {
+
+    @Test
+    void interpolatesBetweenTicks() {
+        final var history = new PositionHistory(2, 8);
+        history.record(1, 42, 10, 0f, 0f, 0f);
+        history.record(1, 42, 11, 10f, 2f, -4f);
+        history.record(1, 42, 13, 30f, 2f, -4f);
+
+        assertEquals(0f, history.distanceSquaredAt(1, 42, 10, 0.5f, 5f, 1f, -2f), 1e-5);
+        assertEquals(1f, history.distanceSquaredAt(1, 42, 10, 0.5f, 5f, 1f, -1f), 1e-5);
+
+        // Across a missing tick
+        assertEquals(0f, history.distanceSquaredAt(1, 42, 12, 0f, 20f, 2f, -4f), 1e-5);
+
+        // Past the newest sample the newest position holds
+        assertEquals(0f, history.distanceSquaredAt(1, 42, 20, 0f, 30f, 2f, -4f), 1e-5);
+
+        assertEquals(-1f, history.distanceSquaredAt(1, 42, 9, 0f, 0f, 0f, 0f));
+    }
+
+    @Test
+    void onlyReachesBackAsFarAsTheRing() {
+        final var history = new PositionHistory(1, 4);
+        for (int tick = 0; tick < 10; tick++) {
+            history.record(0, 1, tick, tick, 0f, 0f);
+        }
+        assertEquals(6, history.oldestTick(0));
+        assertEquals(-1f, history.distanceSquaredAt(0, 1, 5, 0.9f, 5.9f, 0f, 0f));
+        assertEquals(0f, history.distanceSquaredAt(0, 1, 6, 0f, 6f, 0f, 0f));
+    }
+
+    @Test
+    void newOwnerStartsAFreshHistory() {
+        final var history = new PositionHistory(1, 4);
+        history.record(0, 1, 5, 1f, 1f, 1f);
+        assertEquals(-1f, history.distanceSquaredAt(0, 2, 5, 0f, 1f, 1f, 1f));
+
+        history.record(0, 2, 6, 2f, 2f, 2f);
+        assertEquals(-1f, history.distanceSquaredAt(0, 1, 6, 0f, 2f, 2f, 2f));
+        assertEquals(6, history.oldestTick(0));
+    }
+
+    @Test
+    void clearedHistoryStartsAfreshForTheSameOwner() {
+        final var history = new PositionHistory(1, 4);
+        history.record(0, 1, 5, 1f, 1f, 1f);
+        history.clear(0);
+        assertEquals(-1, history.oldestTick(0));
+        assertEquals(-1f, history.distanceSquaredAt(0, 1, 5, 0f, 1f, 1f, 1f));
+
+        // Rejoining later is not interpolated from where the player left
+        history.record(0, 1, 9, 9f, 0f, 0f);
+        assertEquals(-1f, history.distanceSquaredAt(0, 1, 7, 0f, 5f, 0.5f, 0.5f));
+        assertEquals(9, history.oldestTick(0));
+    }
+
+    @Test
+    void lookupsDoNotAllocate() {
+        final var history = new PositionHistory(64, 32);
+        for (int tick = 0; tick < 32; tick++) {
+            for (int player = 0; player < 64; player++) {
+                history.record(player, player, tick, tick, player, 0f);
+            }
+        }
+        final var threadMx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        var sum = 0f;
+        for (int i = 0; i < 100_000; i++) {
+            sum += history.distanceSquaredAt(i & 63, i & 63, i & 31, 0.25f, 1f, 2f, 3f);
+        }
+        final var before = threadMx.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100_000; i++) {
+            sum += history.distanceSquaredAt(i & 63, i & 63, i & 31, 0.25f, 1f, 2f, 3f);
+        }
+        final var allocated = threadMx.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(sum > 0);
+        assertTrue(allocated < 1024, "Lookups allocated " + allocated + " bytes");
+    }
+}
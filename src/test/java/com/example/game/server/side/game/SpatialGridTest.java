@@ -0,0 +1,63 @@
+package com.example.game.server.side.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SpatialGridTest {
+
+    @Test
+    void queryReturnsOnlyEntitiesWithinRadius() {
+        final var grid = new SpatialGrid(10f, 4);
+        grid.insert(0, 0f, 0f, 0f);
+        grid.insert(1, 5f, 5f, 0f);
+        grid.insert(2, 12f, 0f, 0f);
+        grid.insert(3, -40f, 3f, 0f);
+
+        final var out = new int[8];
+        final var found = grid.query(1f, 1f, 0f, 11.5f, out);
+
+        final var indices = Arrays.copyOf(out, found);
+        Arrays.sort(indices);
+        assertArrayEquals(new int[]{0, 1, 2}, indices);
+    }
+
+    @Test
+    void matchesBruteForceAcrossRebuilds() {
+        final var random = new Random(1);
+        final var grid = new SpatialGrid(25f, 16);
+        final var count = 500;
+        final var xs = new float[count];
+        final var ys = new float[count];
+        final var zs = new float[count];
+        final var out = new int[count];
+
+        for (int round = 0; round < 3; round++) {
+            grid.clear();
+            for (int i = 0; i < count; i++) {
+                xs[i] = random.nextFloat() * 1000f - 500f;
+                ys[i] = random.nextFloat() * 1000f - 500f;
+                zs[i] = random.nextFloat() * 20f;
+                grid.insert(i, xs[i], ys[i], zs[i]);
+            }
+
+            for (int i = 0; i < count; i += 37) {
+                final var radius = 60f;
+                var expected = 0;
+                for (int j = 0; j < count; j++) {
+                    final var dx = xs[j] - xs[i];
+                    final var dy = ys[j] - ys[i];
+                    final var dz = zs[j] - zs[i];
+                    if (dx * dx + dy * dy + dz * dz <= radius * radius) {
+                        expected++;
+                    }
+                }
+                assertEquals(expected, grid.query(xs[i], ys[i], zs[i], radius, out));
+            }
+        }
+    }
+}
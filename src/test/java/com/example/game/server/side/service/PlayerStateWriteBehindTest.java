@@ -0,0 +1,86 @@
+package com.example.game.server.side.service;
+
+import com.example.game.server.side.database.PersistenceProperties;
+import com.example.game.server.side.database.PlayerStateRepository;
+import com.example.game.server.side.database.entity.PlayerState;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PlayerStateWriteBehindTest {
+
+    private static class RecordingRepository extends PlayerStateRepository {
+
+        final List<List<PlayerState>> flushes = new ArrayList<>();
+        boolean failing;
+
+        RecordingRepository() {
+            super(null);
+        }
+
+        @Override
+        public void upsertAll(Collection<PlayerState> states, int batchSize) {
+            if (failing) {
+                throw new DataAccessResourceFailureException("database down");
+            }
+            flushes.add(List.copyOf(states));
+        }
+    }
+
+    private final RecordingRepository repository = new RecordingRepository();
+    private final PlayerStateWriteBehind writer = new PlayerStateWriteBehind(repository, new PersistenceProperties());
+
+    @Test
+    void repeatedUpdatesCoalesceIntoOneRow() {
+        writer.stage(1, 1f, 0f, 0f, (byte) 0, 100L, 3);
+        writer.stage(1, 5f, 0f, 2f, (byte) 1, 200L, 4);
+        writer.stage(2, 9f, 0f, 0f, (byte) 0, 150L, 1);
+
+        writer.flush();
+
+        assertEquals(1, repository.flushes.size());
+        final var rows = repository.flushes.get(0);
+        assertEquals(2, rows.size());
+        final var first = rows.stream().filter(state -> state.getPlayerId() == 1).findFirst().orElseThrow();
+        assertEquals(5f, first.getX());
+        assertEquals(2f, first.getZ());
+        assertEquals(200L, first.getLastSeen());
+        assertEquals(7L, first.getMoves());
+        assertEquals(0, writer.pending());
+    }
+
+    @Test
+    void failedFlushKeepsStateForTheNextOne() {
+        writer.stage(1, 1f, 0f, 0f, (byte) 0, 100L, 3);
+        repository.failing = true;
+        writer.flush();
+        assertEquals(1, writer.pending());
+
+        // Newer state staged meanwhile keeps its position and picks up the unsaved moves
+        writer.stage(1, 8f, 0f, 0f, (byte) 0, 300L, 2);
+        repository.failing = false;
+        writer.flush();
+
+        final var row = repository.flushes.get(0).get(0);
+        assertEquals(8f, row.getX());
+        assertEquals(5L, row.getMoves());
+        assertEquals(300L, row.getLastSeen());
+    }
+
+    @Test
+    void closeFlushesAndLaterRequestsAreIgnored() throws Exception {
+        writer.stage(1, 1f, 0f, 0f, (byte) 0, 100L, 3);
+        writer.close();
+        assertEquals(1, repository.flushes.size());
+
+        // A tick or the scheduler running after shutdown
+        writer.stage(2, 1f, 0f, 0f, (byte) 0, 100L, 1);
+        writer.requestFlush();
+        assertEquals(1, writer.pending());
+    }
+}
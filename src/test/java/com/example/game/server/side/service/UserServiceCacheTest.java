@@ -0,0 +1,105 @@
+package com.example.game.server.side.service;
+
+import com.example.game.server.side.database.UserRepository;
+import com.example.game.server.side.database.entity.User;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringJUnitConfig
+class UserServiceCacheTest {
+
+    @Configuration
+    @EnableCaching
+    static class Config {
+
+        @Bean
+        UserRepository userRepository() {
+            return mock(UserRepository.class);
+        }
+
+        @Bean
+        CacheManager cacheManager() {
+            final var manager = new CaffeineCacheManager(UserService.USERS_CACHE);
+            manager.setCaffeine(Caffeine.newBuilder().maximumSize(100));
+            return manager;
+        }
+
+        @Bean
+        UserService userService(UserRepository userRepository) {
+            return new UserService(userRepository);
+        }
+    }
+
+    @Autowired
+    private UserRepository repository;
+    @Autowired
+    private UserService service;
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void clear() {
+        reset(repository);
+        cacheManager.getCache(UserService.USERS_CACHE).clear();
+    }
+
+    @Test
+    void repeatedLookupsHitTheCache() {
+        when(repository.findById(1)).thenReturn(Optional.of(user(1, "ann")));
+
+        assertEquals("ann", service.getUser(1).orElseThrow().getName());
+        assertEquals("ann", service.getUser(1).orElseThrow().getName());
+
+        verify(repository, times(1)).findById(1);
+    }
+
+    @Test
+    void missingUsersAreNotCached() {
+        when(repository.findById(2)).thenReturn(Optional.empty());
+
+        assertTrue(service.getUser(2).isEmpty());
+        assertTrue(service.getUser(2).isEmpty());
+
+        verify(repository, times(2)).findById(2);
+    }
+
+    @Test
+    void savingReplacesTheCachedUser() {
+        when(repository.findById(3)).thenReturn(Optional.of(user(3, "old")));
+        service.getUser(3);
+        when(repository.save(any())).thenReturn(user(3, "new"));
+
+        service.saveUser(user(3, "new"));
+
+        assertEquals("new", service.getUser(3).orElseThrow().getName());
+        verify(repository, times(1)).findById(3);
+        verify(repository, never()).findAll();
+    }
+
+    private static User user(int id, String name) {
+        final var user = new User();
+        user.setId(id);
+        user.setName(name);
+        return user;
+    }
+}
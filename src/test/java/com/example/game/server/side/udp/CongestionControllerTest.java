@@ -0,0 +1,92 @@
+package com.example.game.server.side.udp;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CongestionControllerTest {
+
+    private static final InetSocketAddress CLIENT = new InetSocketAddress("127.0.0.1", 40000);
+
+    @Test
+    void clientThatNeverAcksKeepsFullRateAndBudget() {
+        final var controller = new CongestionController(600, 4800, 6);
+        controller.bind(CLIENT, 7);
+        for (int tick = 0; tick < 200; tick++) {
+            controller.onSent(tick, tick * 33L);
+        }
+        assertThat(controller.budget()).isEqualTo(4800);
+        assertThat(controller.interval()).isEqualTo(1);
+        assertThat(controller.isDue(5, 0)).isTrue();
+    }
+
+    @Test
+    void lossCutsBudgetThenRate() {
+        final var controller = new CongestionController(600, 4800, 6);
+        controller.bind(CLIENT, 7);
+        // Every other snapshot acked: 50% loss
+        for (int tick = 0; tick < 400; tick++) {
+            controller.onSent(tick, tick * 33L);
+            if (tick % 2 == 0) {
+                controller.onAck(tick, tick * 33L + 40);
+            }
+        }
+        assertThat(controller.loss()).isGreaterThan(0.3f);
+        assertThat(controller.budget()).isEqualTo(600);
+        assertThat(controller.interval()).isEqualTo(6);
+        assertThat(controller.isDue(6, 0)).isTrue();
+        assertThat(controller.isDue(7, 0)).isFalse();
+    }
+
+    @Test
+    void risingRttCutsBudgetAndCleanLinkRecovers() {
+        final var controller = new CongestionController(600, 4800, 6);
+        controller.bind(CLIENT, 7);
+        var tick = 0;
+        var now = 0L;
+        // Delay grows by 5 ms per snapshot, a queue filling up
+        for (; tick < 100; tick++, now += 33) {
+            controller.onSent(tick, now);
+            controller.onAck(tick, now + 40 + tick * 5L);
+        }
+        assertThat(controller.smoothedRtt()).isGreaterThan(300f);
+        assertThat(controller.budget()).isLessThan(4800);
+
+        // Queue drained: every snapshot acked quickly again
+        for (; tick < 1000; tick++, now += 33) {
+            controller.onSent(tick, now);
+            controller.onAck(tick, now + 40);
+        }
+        assertThat(controller.interval()).isEqualTo(1);
+        assertThat(controller.budget()).isEqualTo(4800);
+    }
+
+    @Test
+    void ackMeasuresRttOnce() {
+        final var controller = new CongestionController(600, 4800, 6);
+        controller.bind(CLIENT, 7);
+        controller.onSent(10, 1000);
+        assertThat(controller.onAck(10, 1050)).isEqualTo(50);
+        assertThat(controller.onAck(10, 1060)).isEqualTo(-1);
+        assertThat(controller.onAck(11, 1060)).isEqualTo(-1);
+    }
+
+    @Test
+    void newClientInSlotStartsFresh() {
+        final var controller = new CongestionController(600, 4800, 6);
+        controller.bind(CLIENT, 7);
+        for (int tick = 0; tick < 400; tick++) {
+            controller.onSent(tick, tick * 33L);
+            if (tick % 2 == 0) {
+                controller.onAck(tick, tick * 33L + 40);
+            }
+        }
+        assertThat(controller.interval()).isGreaterThan(1);
+
+        controller.bind(new InetSocketAddress("127.0.0.1", 40001), 8);
+        assertThat(controller.budget()).isEqualTo(4800);
+        assertThat(controller.interval()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.game.server.side.udp;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InputRingTest {
+
+    private static final InetSocketAddress ADDRESS = new InetSocketAddress("127.0.0.1", 5000);
+
+    @Test
+    void fullRingRejectsUntilDrained() {
+        final var ring = new InputRing(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offerMove(i, ADDRESS, i, i, 0, 0, (byte) 0));
+        }
+        assertFalse(ring.offerMove(4, ADDRESS, 4, 4, 0, 0, (byte) 0));
+
+        final var seen = new int[1];
+        assertEquals(4, ring.drain((slot, address, playerId, x, y, z, facing) -> assertEquals(seen[0]++, playerId)));
+        assertTrue(ring.offerMove(4, ADDRESS, 4, 4, 0, 0, (byte) 0));
+        assertEquals(1, ring.size());
+    }
+
+    @Test
+    void consumerSeesEveryAcceptedMoveInOrder() throws Exception {
+        final var ring = new InputRing(64);
+        final var total = 200_000;
+        final var accepted = new int[1];
+        final var producer = new Thread(() -> {
+            for (int i = 0; i < total; i++) {
+                // Spin when full so every move gets through and ordering can be checked end to end
+                while (!ring.offerMove(i & 0xFF, ADDRESS, i, i * 0.5f, 1f, 2f, (byte) (i & 1))) {
+                    Thread.onSpinWait();
+                }
+            }
+            accepted[0] = total;
+        });
+        producer.start();
+
+        final var next = new int[1];
+        while (next[0] < total) {
+            ring.drain((slot, address, playerId, x, y, z, facing) -> {
+                assertEquals(next[0], playerId);
+                assertEquals(playerId & 0xFF, slot);
+                assertEquals(playerId * 0.5f, x);
+                assertEquals((byte) (playerId & 1), facing);
+                next[0]++;
+            });
+        }
+        producer.join();
+        assertEquals(total, accepted[0]);
+        assertEquals(0, ring.size());
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.game.server.side.udp;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessageDispatcherTest {
+
+    private MessageDispatcher dispatcher;
+    private final PacketView view = new PacketView();
+
+    private MessageDispatcher dispatcher(int maxPending) {
+        final var properties = new UdpProperties();
+        properties.setMaxSessions(4);
+        properties.setDispatchMaxPending(maxPending);
+        properties.setDispatchBlockMillis(1);
+        dispatcher = new MessageDispatcher(properties, new UdpMetrics(new SimpleMeterRegistry()));
+        return dispatcher;
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        dispatcher.close();
+    }
+
+    @Test
+    void messagesForOnePlayerRunInOrder() throws Exception {
+        final var seen = Collections.synchronizedList(new ArrayList<Integer>());
+        final var done = new CountDownLatch(1000);
+        dispatcher(10_000).register(UDPPacket.ACTION, (playerId, payload) -> {
+            seen.add(payload.getInt());
+            done.countDown();
+        });
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(dispatcher.dispatch(0, action(7, i)));
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        final var expected = new ArrayList<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, List.copyOf(seen));
+    }
+
+    @Test
+    void slowPlayerDoesNotBlockOthers() throws Exception {
+        final var release = new CountDownLatch(1);
+        final var otherHandled = new CountDownLatch(1);
+        dispatcher(10_000).register(UDPPacket.ACTION, (playerId, payload) -> {
+            if (playerId == 1) {
+                await(release);
+            } else {
+                otherHandled.countDown();
+            }
+        });
+
+        dispatcher.dispatch(0, action(1, 0));
+        dispatcher.dispatch(1, action(2, 0));
+
+        assertTrue(otherHandled.await(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    void saturatedHandlersRejectInsteadOfQueueingForever() {
+        final var release = new CountDownLatch(1);
+        dispatcher(2).register(UDPPacket.ACTION, (playerId, payload) -> await(release));
+
+        assertTrue(dispatcher.dispatch(0, action(1, 0)));
+        assertTrue(dispatcher.dispatch(0, action(1, 1)));
+        assertFalse(dispatcher.dispatch(0, action(1, 2)));
+        assertEquals(2, dispatcher.pending());
+        release.countDown();
+    }
+
+    @Test
+    void closedDispatcherDropsWithoutHoldingPermits() throws Exception {
+        dispatcher(2).register(UDPPacket.ACTION, (playerId, payload) -> {
+        });
+        dispatcher.close();
+
+        assertFalse(dispatcher.dispatch(0, action(1, 0)));
+        assertEquals(0, dispatcher.pending());
+    }
+
+    private PacketView action(int playerId, int value) {
+        final var packet = ByteBuffer.allocate(UDPPacket.HEADER_SIZE + 4).order(ByteOrder.LITTLE_ENDIAN)
+                .put(UDPPacket.ACTION).putShort((short) (UDPPacket.HEADER_SIZE + 4)).putInt(playerId).putInt(value)
+                .flip();
+        return view.wrap(packet);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
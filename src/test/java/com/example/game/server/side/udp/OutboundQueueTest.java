@@ -0,0 +1,138 @@
+package com.example.game.server.side.udp;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class OutboundQueueTest {
+
+    private DatagramChannel sender;
+    private DatagramChannel client;
+    private InetSocketAddress clientAddress;
+    private final ByteBuffer received = ByteBuffer.allocate(2048).order(ByteOrder.LITTLE_ENDIAN);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        sender = DatagramChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        sender.configureBlocking(false);
+        client = DatagramChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        clientAddress = (InetSocketAddress) client.getLocalAddress();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        sender.close();
+        client.close();
+    }
+
+    @Test
+    void loneMessageGoesOutUnchanged() throws Exception {
+        final var queue = new OutboundQueue(4, 1200);
+        queue.enqueue(message(42, 20));
+        assertEquals(1, queue.flush(sender, clientAddress));
+
+        receive();
+        assertEquals(20, received.remaining());
+        assertEquals(UDPPacket.MOVE, received.get(0));
+        assertEquals(42, received.getInt(3));
+    }
+
+    @Test
+    void smallMessagesAreCoalescedIntoOneBatch() throws Exception {
+        final var queue = new OutboundQueue(4, 1200);
+        for (int i = 0; i < 10; i++) {
+            queue.enqueue(message(i, 20));
+        }
+        assertEquals(1, queue.pending());
+        assertEquals(1, queue.flush(sender, clientAddress));
+
+        receive();
+        assertEquals(UDPPacket.BATCH, received.get(0));
+        assertEquals(received.remaining(), received.getShort(1));
+        var offset = UDPPacket.HEADER_SIZE;
+        for (int i = 0; i < 10; i++) {
+            final var length = received.getShort(offset);
+            assertEquals(20, length);
+            assertEquals(i, received.getInt(offset + UDPPacket.BATCH_FRAME_HEADER_SIZE + 3));
+            offset += UDPPacket.BATCH_FRAME_HEADER_SIZE + length;
+        }
+        assertEquals(received.remaining(), offset);
+    }
+
+    @Test
+    void fullQueueDropsOldestDatagram() throws Exception {
+        final var queue = new OutboundQueue(2, 1200);
+        // Full-size messages cannot be framed, each takes a datagram of its own
+        assertTrue(queue.enqueue(message(1, 1200)));
+        assertTrue(queue.enqueue(message(2, 1200)));
+        assertFalse(queue.enqueue(message(3, 1200)));
+        assertEquals(1, queue.droppedDatagrams());
+
+        assertEquals(2, queue.flush(sender, clientAddress));
+        receive();
+        assertEquals(1200, received.remaining());
+        assertEquals(2, received.getInt(3));
+        receive();
+        assertEquals(3, received.getInt(3));
+    }
+
+    @Test
+    void fullSocketBufferEndsTheFlushAndKeepsTheRest() throws Exception {
+        // Loopback hands datagrams straight to the receiver, so only a real route can back the socket
+        // buffer up; this one leads nowhere (TEST-NET-1)
+        final var nowhere = new InetSocketAddress("192.0.2.1", 9);
+        try (final var channel = DatagramChannel.open()) {
+            channel.setOption(StandardSocketOptions.SO_SNDBUF, 4096);
+            channel.configureBlocking(false);
+            channel.bind(new InetSocketAddress(0));
+            try {
+                channel.send(ByteBuffer.allocate(1), nowhere);
+            } catch (IOException e) {
+                assumeTrue(false, "No route to send through: " + e.getMessage());
+            }
+
+            final var queue = new OutboundQueue(256, 1200);
+            for (int i = 0; i < 256; i++) {
+                queue.enqueue(message(i, 1200));
+            }
+            final var sent = assertTimeoutPreemptively(Duration.ofSeconds(1), () -> queue.flush(channel, nowhere));
+            assertTrue(sent < 256, "Expected the socket buffer to fill, all " + sent + " datagrams went out");
+            assertEquals(256 - sent, queue.pending());
+            assertEquals(0, queue.droppedDatagrams());
+
+            // Once the slow client's queue fills up again, the oldest datagrams are dropped
+            for (int i = queue.pending(); i < 256; i++) {
+                assertTrue(queue.enqueue(message(i, 1200)));
+            }
+            assertFalse(queue.enqueue(message(256, 1200)));
+            assertEquals(1, queue.droppedDatagrams());
+        }
+    }
+
+    private void receive() throws Exception {
+        received.clear();
+        client.receive(received);
+        received.flip();
+    }
+
+    private static ByteBuffer message(int playerId, int length) {
+        final var buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(UDPPacket.MOVE).putShort((short) length).putInt(playerId);
+        return buffer.position(0);
+    }
+}
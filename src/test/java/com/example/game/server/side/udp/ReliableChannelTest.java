@@ -0,0 +1,153 @@
+package com.example.game.server.side.udp;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReliableChannelTest {
+
+    private static final InetSocketAddress CLIENT = new InetSocketAddress("10.0.0.1", 5000);
+
+    private final ReliableChannel channel = new ReliableChannel();
+    private final List<Integer> delivered = new ArrayList<>();
+    private final ReliableChannel.Delivery delivery = (buffer, offset, length) -> delivered.add(buffer.getInt(offset + UDPPacket.HEADER_SIZE));
+
+    ReliableChannelTest() {
+        channel.bind(CLIENT, 7);
+    }
+
+    @Test
+    void deliversInSequenceOrderAndDropsDuplicates() {
+        assertEquals(0, receive(1, message(1)));
+        assertEquals(0, receive(2, message(2)));
+        assertEquals(3, receive(0, message(0)));
+        assertEquals(0, receive(1, message(1)));
+        assertEquals(1, receive(3, message(3)));
+
+        assertEquals(List.of(0, 1, 2, 3), delivered);
+    }
+
+    @Test
+    void acksTheNewestSequenceAndTheOnesBeforeIt() {
+        receive(0, message(0));
+        receive(2, message(2));
+        receive(3, message(3));
+
+        final var ack = ByteBuffer.allocate(UDPPacket.RELIABLE_ACK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        assertTrue(channel.writeAck(ack));
+        assertEquals(UDPPacket.RELIABLE_ACK, ack.get(0));
+        assertEquals(3, Short.toUnsignedInt(ack.getShort(UDPPacket.HEADER_SIZE)));
+        // 2 received (bit 0), 1 missing (bit 1), 0 received (bit 2)
+        assertEquals(0b101, ack.getInt(UDPPacket.HEADER_SIZE + 2));
+        assertFalse(channel.writeAck(ack));
+    }
+
+    @Test
+    void resendsOnlyWhatIsUnackedOnceTheIntervalPassed() {
+        final var queue = new OutboundQueue(8, 1200);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(channel.send(message(i), 0, queue));
+        }
+        queue.clear();
+
+        // 2 acked directly, 0 through the bit field; 1 is still missing
+        channel.acknowledge(2, 0b10);
+
+        assertEquals(0, channel.resend(50, 100, queue));
+        assertEquals(1, channel.resend(100, 100, queue));
+        assertEquals(0, channel.resend(150, 100, queue));
+
+        channel.acknowledge(1, 0);
+        assertFalse(channel.hasUnacked());
+    }
+
+    @Test
+    void refusesToSendWithAFullWindow() {
+        final var queue = new OutboundQueue(64, 1200);
+        for (int i = 0; i < ReliableChannel.WINDOW; i++) {
+            assertTrue(channel.send(message(i), 0, queue));
+        }
+        assertFalse(channel.send(message(99), 0, queue));
+    }
+
+    @Test
+    void aLostAckHoldsTheWindowInsteadOfOverwritingItsMessage() {
+        final var queue = new OutboundQueue(64, 1200);
+        // 0's ack is lost; everything after it is acked
+        assertTrue(channel.send(message(0), 0, queue));
+        for (int i = 1; i < ReliableChannel.WINDOW; i++) {
+            assertTrue(channel.send(message(i), 0, queue));
+            channel.acknowledge(i, 0);
+        }
+        // 32 shares 0's place in the window
+        assertFalse(channel.send(message(ReliableChannel.WINDOW), 0, queue));
+        queue.clear();
+
+        assertEquals(1, channel.resend(100, 100, queue));
+        assertEquals(1, queue.pending());
+        channel.acknowledge(0, 0);
+        assertFalse(channel.hasUnacked());
+        assertTrue(channel.send(message(ReliableChannel.WINDOW), 100, queue));
+    }
+
+    @Test
+    void aBlockedDeliveryDoesNotHoldUpAcksAndResends() throws Exception {
+        final var queue = new OutboundQueue(8, 1200);
+        assertTrue(channel.send(message(0), 0, queue));
+        queue.clear();
+        final var delivering = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+        final var receiving = CompletableFuture.runAsync(() -> {
+            final var message = message(0);
+            channel.receive(0, message, 0, message.remaining(), (buffer, offset, length) -> {
+                delivering.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        });
+        assertTrue(delivering.await(5, TimeUnit.SECONDS));
+
+        // What the tick does while a handler is stuck behind a full mailbox
+        final var ticking = CompletableFuture.runAsync(() -> {
+            final var ack = ByteBuffer.allocate(UDPPacket.RELIABLE_ACK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            assertTrue(channel.writeAck(ack));
+            assertEquals(1, channel.resend(100, 100, queue));
+        });
+        ticking.get(1, TimeUnit.SECONDS);
+        release.countDown();
+        receiving.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void anotherClientInTheSlotStartsFresh() {
+        receive(0, message(0));
+        channel.bind(new InetSocketAddress("10.0.0.2", 5000), 8);
+
+        assertFalse(channel.isAckDue());
+        assertEquals(1, receive(0, message(0)));
+    }
+
+    private int receive(int sequence, ByteBuffer message) {
+        return channel.receive(sequence, message, message.position(), message.remaining(), delivery);
+    }
+
+    private static ByteBuffer message(int value) {
+        return ByteBuffer.allocate(UDPPacket.HEADER_SIZE + 4).order(ByteOrder.LITTLE_ENDIAN)
+                .put(UDPPacket.ACTION).putShort((short) (UDPPacket.HEADER_SIZE + 4)).putInt(7).putInt(value)
+                .flip();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.game.server.side.udp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplayLogTest {
+
+    private static final InetSocketAddress CLIENT = new InetSocketAddress("10.1.2.3", 40000);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordsRoundTripAcrossRingWrapsAndSegments() throws IOException {
+        final var ring = new RecordRing("test", 256);
+        // Small segments so the 40 records below roll over several times
+        final var log = new ReplayLog(directory, 512);
+        for (int i = 0; i < 40; i++) {
+            assertTrue(ring.offer(ReplayLog.IN, 3, 1, 0, CLIENT, packet(i), 20));
+            assertTrue(ring.peek() != RecordRing.EMPTY);
+            log.append(ring);
+        }
+        assertTrue(ring.offer(ReplayLog.TICK, 3, 0, 77, null, packet(0), 0));
+        ring.peek();
+        log.append(ring);
+        log.close();
+
+        final var reader = new ReplayLogReader(directory);
+        assertTrue(reader.segmentCount() > 1);
+        for (int i = 0; i < 40; i++) {
+            assertTrue(reader.next());
+            assertEquals(ReplayLog.IN, reader.kind());
+            assertEquals(3, reader.room());
+            assertEquals(1, reader.receiver());
+            assertEquals(CLIENT, reader.address());
+            final var recorded = reader.packet();
+            assertEquals(20, recorded.remaining());
+            assertEquals(i, recorded.getInt(3));
+        }
+        assertTrue(reader.next());
+        assertEquals(ReplayLog.TICK, reader.kind());
+        assertEquals(77, reader.tick());
+        assertNull(reader.address());
+        assertFalse(reader.next());
+    }
+
+    @Test
+    void fullRingDropsInsteadOfWaiting() {
+        final var ring = new RecordRing("test", 256);
+        var accepted = 0;
+        while (ring.offer(ReplayLog.IN, 0, 0, 0, CLIENT, packet(accepted), 20)) {
+            accepted++;
+        }
+        // 26 header + 4 address + 20 packet, aligned to 56 bytes
+        assertEquals(4, accepted);
+        ring.peek();
+        ring.take(ByteBuffer.allocate(64));
+        assertTrue(ring.offer(ReplayLog.IN, 0, 0, 0, CLIENT, packet(accepted), 20));
+    }
+
+    private static ByteBuffer packet(int playerId) {
+        return ByteBuffer.allocate(20).order(ByteOrder.LITTLE_ENDIAN)
+                .put(UDPPacket.MOVE).putShort((short) 20).putInt(playerId).putFloat(1f).putFloat(2f).putFloat(3f).put((byte) 0)
+                .flip();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.game.server.side.udp;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RoomIndexTest {
+
+    private final UdpProperties properties = new UdpProperties();
+    private final Room a = room(1);
+    private final Room b = room(2);
+    private final RoomIndex index = new RoomIndex();
+
+    @Test
+    void findsAssignedPlayersIncludingIdZeroAndNegativeIds() {
+        index.put(0, a);
+        index.put(-5, b);
+        index.put(42, a);
+
+        assertSame(a, index.find(0));
+        assertSame(b, index.find(-5));
+        assertSame(a, index.find(42));
+        assertNull(index.find(43));
+    }
+
+    @Test
+    void reassigningAndRemovingUpdateTheEntry() {
+        index.put(7, a);
+        index.put(7, b);
+        assertSame(b, index.find(7));
+
+        index.remove(7);
+        assertNull(index.find(7));
+        index.put(7, a);
+        assertSame(a, index.find(7));
+    }
+
+    @Test
+    void survivesGrowthAndChurn() {
+        for (int round = 0; round < 5; round++) {
+            for (int id = 0; id < 1000; id++) {
+                index.put(round * 1000 + id, (id & 1) == 0 ? a : b);
+            }
+            for (int id = 0; id < 1000; id++) {
+                assertSame((id & 1) == 0 ? a : b, index.find(round * 1000 + id));
+                index.remove(round * 1000 + id);
+            }
+        }
+        assertNull(index.find(4999));
+    }
+
+    @Test
+    void removingARoomUnassignsOnlyItsPlayers() {
+        index.put(1, a);
+        index.put(2, b);
+        index.removeRoom(a);
+
+        assertNull(index.find(1));
+        assertSame(b, index.find(2));
+    }
+
+    private Room room(int id) {
+        final var metrics = new UdpMetrics(new SimpleMeterRegistry());
+        return new Room(id, "r" + id, 4, 64, 1, properties, new PacketTracer(properties), new ReplayRecorder(properties, metrics),
+                metrics, new MessageDispatcher(properties, metrics), PlayerStateSink.NONE, () -> null, null);
+    }
+}
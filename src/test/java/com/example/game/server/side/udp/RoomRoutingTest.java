@@ -0,0 +1,76 @@
+package com.example.game.server.side.udp;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RoomRoutingTest {
+
+    private final UdpProperties properties = new UdpProperties();
+    private final UdpServer server = server();
+    private final PacketView view = new PacketView();
+
+    @AfterEach
+    void stop() throws Exception {
+        server.stopUdpServer();
+    }
+
+    @Test
+    void packetsGoToTheAssignedRoom() {
+        final var room = server.createRoom("match", 4);
+        server.assignPlayer(7, room.id());
+
+        server.onPacket(view.wrap(move(7)), new InetSocketAddress("10.0.0.7", 4000), 0);
+        server.onPacket(view.wrap(move(8)), new InetSocketAddress("10.0.0.8", 4000), 0);
+
+        assertEquals(1, room.size());
+        assertEquals(1, server.defaultRoom().size());
+        assertEquals(2, server.sessionCount());
+    }
+
+    @Test
+    void reassigningEndsTheSessionInThePreviousRoom() {
+        server.onPacket(view.wrap(move(7)), new InetSocketAddress("10.0.0.7", 4000), 0);
+        assertEquals(1, server.defaultRoom().size());
+
+        final var room = server.createRoom("match", 4);
+        server.assignPlayer(7, room.id());
+
+        assertEquals(0, server.defaultRoom().size());
+        assertSame(room, server.roomOf(7));
+    }
+
+    @Test
+    void closingARoomSendsItsPlayersBackToTheDefaultRoom() {
+        final var room = server.createRoom(null, 0);
+        server.assignPlayer(7, room.id());
+
+        server.closeRoom(room.id());
+
+        assertSame(server.defaultRoom(), server.roomOf(7));
+        assertEquals(properties.getRoomCapacity(), room.capacity());
+    }
+
+    private UdpServer server() {
+        properties.setReceivers(1);
+        properties.setMaxSessions(16);
+        properties.setTickThreads(1);
+        final var metrics = new UdpMetrics(new SimpleMeterRegistry());
+        return new UdpServer(properties, new PacketTracer(properties), new ReplayRecorder(properties, metrics), metrics,
+                new MessageDispatcher(properties, metrics), PlayerStateSink.NONE);
+    }
+
+    private static ByteBuffer move(int playerId) {
+        return ByteBuffer.allocate(UDPPacket.HEADER_SIZE + PacketView.MOVE_PAYLOAD_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+                .put(UDPPacket.MOVE).putShort((short) (UDPPacket.HEADER_SIZE + PacketView.MOVE_PAYLOAD_SIZE)).putInt(playerId)
+                .putFloat(1f).putFloat(2f).putFloat(3f).put((byte) 0)
+                .flip();
+    }
+}
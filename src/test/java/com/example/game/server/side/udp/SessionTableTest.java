@@ -0,0 +1,153 @@
+package com.example.game.server.side.udp;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionTableTest {
+
+    @Test
+    void registersFindsAndRemovesClients() throws Exception {
+        final var table = new SessionTable(4, 4, 4, 1200, 10_000L, 0L);
+        final var first = new InetSocketAddress(InetAddress.getByName("10.0.0.1"), 5000);
+        final var samePortOtherHost = new InetSocketAddress(InetAddress.getByName("10.0.0.2"), 5000);
+
+        final var slot = table.register(first, 7, 100L);
+        assertEquals(slot, table.register(new InetSocketAddress(InetAddress.getByName("10.0.0.1"), 5000), 7, 200L));
+        assertEquals(200L, table.lastSeen(slot));
+        final var other = table.register(samePortOtherHost, 8, 100L);
+        assertNotEquals(slot, other);
+        assertEquals(2, table.size());
+
+        table.updatePosition(slot, 7, 1f, 2f, 3f, (byte) 1);
+        assertTrue(table.isPositioned(slot));
+        assertEquals(2f, table.y(slot));
+
+        assertTrue(table.remove(first));
+        assertFalse(table.isActive(slot));
+        assertEquals(SessionTable.NO_SESSION, table.find(first));
+        assertEquals(other, table.find(samePortOtherHost));
+
+        // Freed slot is reused with fresh state
+        final var reused = table.register(first, 9, 300L);
+        assertEquals(slot, reused);
+        assertFalse(table.isPositioned(reused));
+        assertEquals(9, table.playerId(reused));
+    }
+
+    @Test
+    void findsSessionsByPlayerId() throws Exception {
+        final var table = new SessionTable(4, 4, 4, 1200, 10_000L, 0L);
+        final var host = InetAddress.getByName("10.0.0.1");
+        final var first = new InetSocketAddress(host, 5000);
+        final var slot = table.register(first, 7, 0L);
+        assertEquals(slot, table.findPlayer(7));
+        assertEquals(SessionTable.NO_SESSION, table.findPlayer(8));
+
+        // Reconnecting from a new port: the newer session wins, and removing the old one keeps it
+        final var reconnected = table.register(new InetSocketAddress(host, 5001), 7, 0L);
+        assertEquals(reconnected, table.findPlayer(7));
+        assertTrue(table.remove(first));
+        assertEquals(reconnected, table.findPlayer(7));
+
+        table.remove(reconnected, new InetSocketAddress(host, 5001));
+        assertEquals(SessionTable.NO_SESSION, table.findPlayer(7));
+    }
+
+    @Test
+    void rejectsClientsWhenFull() throws Exception {
+        final var table = new SessionTable(2, 4, 4, 1200, 10_000L, 0L);
+        final var host = InetAddress.getByName("10.0.0.1");
+        table.register(new InetSocketAddress(host, 1), 1, 0L);
+        table.register(new InetSocketAddress(host, 2), 2, 0L);
+        assertEquals(SessionTable.NO_SESSION, table.register(new InetSocketAddress(host, 3), 3, 0L));
+    }
+
+    @Test
+    void survivesChurnWithoutLosingClients() throws Exception {
+        final var table = new SessionTable(64, 4, 4, 1200, 10_000L, 0L);
+        final var host = InetAddress.getByName("192.168.1.1");
+        for (int round = 0; round < 200; round++) {
+            for (int port = 0; port < 64; port++) {
+                assertNotEquals(SessionTable.NO_SESSION, table.register(new InetSocketAddress(host, 1000 + port), port, round));
+            }
+            for (int port = 0; port < 64; port += 2) {
+                assertTrue(table.remove(new InetSocketAddress(host, 1000 + port)));
+            }
+            for (int port = 1; port < 64; port += 2) {
+                assertNotEquals(SessionTable.NO_SESSION, table.find(new InetSocketAddress(host, 1000 + port)));
+            }
+            for (int port = 1; port < 64; port += 2) {
+                assertTrue(table.remove(new InetSocketAddress(host, 1000 + port)));
+            }
+        }
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    void heartbeatOfKnownClientDoesNotAllocate() throws Exception {
+        final var table = new SessionTable(16, 4, 4, 1200, 10_000L, 0L);
+        final var address = new InetSocketAddress(InetAddress.getByName("10.1.2.3"), 4242);
+        final var slot = table.register(address, 1, 0L);
+
+        final var threadMx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < 100_000; i++) {
+            table.register(address, 1, i);
+        }
+        final var before = threadMx.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100_000; i++) {
+            table.register(address, 1, i);
+            table.updatePosition(slot, 1, i, i, i, (byte) 0);
+        }
+        final var allocated = threadMx.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(allocated < 1024, "Expected no allocation, got " + allocated + " bytes");
+    }
+
+    @Test
+    void expiresOnlyIdleSessions() throws Exception {
+        final var table = new SessionTable(16, 4, 4, 1200, 1_000L, 0L);
+        final var host = InetAddress.getByName("10.0.0.1");
+        final var idle = new InetSocketAddress(host, 1);
+        final var active = new InetSocketAddress(host, 2);
+        table.register(idle, 1, 0L);
+        table.register(active, 2, 0L);
+
+        final var expired = new ArrayList<Integer>();
+        for (long now = 0; now <= 5_000L; now += 50) {
+            // The active client keeps sending, the idle one went silent at t=0
+            table.register(active, 2, now);
+            table.expireIdle(now, (address, playerId) -> expired.add(playerId));
+            if (now < 1_000L) {
+                assertTrue(expired.isEmpty(), "Expired too early at " + now);
+            }
+        }
+
+        assertEquals(List.of(1), expired);
+        assertEquals(SessionTable.NO_SESSION, table.find(idle));
+        assertNotEquals(SessionTable.NO_SESSION, table.find(active));
+    }
+
+    @Test
+    void timingWheelExpiresWithinResolution() {
+        final var wheel = new TimingWheel(8, 100L, 16, 0L);
+        final var expired = new int[8];
+        wheel.schedule(3, 250L);
+        wheel.schedule(5, 4_000L); // more than one rotation ahead
+        assertEquals(0, wheel.advance(200L, expired));
+        assertEquals(1, wheel.advance(300L, expired));
+        assertEquals(3, expired[0]);
+        assertEquals(0, wheel.advance(3_900L, expired));
+        assertEquals(1, wheel.advance(4_050L, expired));
+        assertEquals(5, expired[0]);
+        assertFalse(wheel.isScheduled(5));
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.game.server.side.udp;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UDPPacketTest {
+
+    private static final float PRECISION = 0.01f;
+
+    private final ByteBuffer datagram = ByteBuffer.allocate(1200).order(ByteOrder.LITTLE_ENDIAN);
+    private final BitWriter writer = new BitWriter();
+    private final BitReader reader = new BitReader();
+
+    @Test
+    void byteArrayCodecMatchesPacketView() {
+        final var payload = ByteBuffer.allocate(PacketView.MOVE_PAYLOAD_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+                .putFloat(1.5f).putFloat(-2f).putFloat(3.25f).put((byte) 1).array();
+        final var packet = new UDPPacket(UDPPacket.MOVE, 0x01020304, payload, (short) (UDPPacket.HEADER_SIZE + payload.length));
+
+        final var bytes = packet.toByteArray();
+        final var view = new PacketView().wrap(ByteBuffer.wrap(bytes));
+        assertTrue(view.isValid());
+        assertEquals(UDPPacket.MOVE, view.messageType());
+        assertEquals(bytes.length, view.packetLength());
+        assertEquals(0x01020304, view.playerId());
+        assertEquals(1.5f, view.x());
+        assertEquals(-2f, view.y());
+        assertEquals(3.25f, view.z());
+        assertEquals(1, view.facing());
+
+        final var decoded = UDPPacket.fromByteArray(bytes);
+        assertEquals(packet.getPlayerId(), decoded.getPlayerId());
+        assertEquals(packet.getPacketLength(), decoded.getPacketLength());
+        assertArrayEquals(payload, decoded.getPayload());
+    }
+
+    @Test
+    void viewRejectsTruncatedPackets() {
+        final var bytes = new UDPPacket(UDPPacket.MOVE, 1, new byte[13], (short) 20).toByteArray();
+        assertFalse(new PacketView().wrap(ByteBuffer.wrap(bytes, 0, 12).slice()).isValid());
+        assertFalse(new PacketView().wrap(ByteBuffer.wrap(bytes, 0, 5).slice()).isValid());
+    }
+
+    @Test
+    void bitsRoundTrip() {
+        final var buffer = ByteBuffer.allocate(64);
+        writer.wrap(buffer);
+        writer.writeBits(5, 3);
+        writer.writeBoolean(true);
+        writer.writeVarSigned(-1);
+        writer.writeVarSigned(Integer.MIN_VALUE);
+        writer.writeVarUnsigned(0);
+        writer.writeBits(-1, 32);
+        writer.flush();
+
+        reader.wrap(buffer.flip());
+        assertEquals(5, reader.readBits(3));
+        assertTrue(reader.readBoolean());
+        assertEquals(-1, reader.readVarSigned());
+        assertEquals(Integer.MIN_VALUE, reader.readVarSigned());
+        assertEquals(0, reader.readVarUnsigned());
+        assertEquals(-1, reader.readBits(32));
+    }
+
+    @Test
+    void deltaSnapshotRoundTripsAgainstBaseline() {
+        final var baseline = frame(10, 0, 50);
+        // Move a few entities, leave the rest untouched and add one the client has not seen yet
+        final var moved = new SnapshotFrame(64);
+        moved.reset(11);
+        for (int i = 0; i < baseline.size(); i++) {
+            final var dx = i % 3 == 0 ? 7 : 0;
+            final var facing = i % 5 == 0 ? (byte) 1 : baseline.facing(i);
+            moved.add(baseline.playerId(i), baseline.x(i) + dx, baseline.y(i), baseline.z(i) - dx, facing);
+        }
+        moved.add(1000, 1, 2, 3, (byte) 0);
+
+        final var raw = UDPPacket.SNAPSHOT_HEADER_SIZE + moved.size() * UDPPacket.SNAPSHOT_ENTRY_SIZE;
+        final var full = encodedSize(moved, null);
+        final var delta = encodedSize(moved, baseline);
+        assertTrue(full * 2 < raw, "Quantized " + full + " bytes should be well under raw " + raw + " bytes");
+        assertTrue(delta * 2 < full, "Delta " + delta + " bytes should be well under quantized " + full + " bytes");
+
+        final var decoded = decodeAll(moved, baseline);
+        assertFramesEqual(moved, decoded);
+    }
+
+    @Test
+    void largeSnapshotSplitsIntoParts() {
+        final var frame = frame(3, 0, 400);
+        final var decoded = decodeAll(frame, null);
+        assertFramesEqual(frame, decoded);
+    }
+
+    @Test
+    void quantizationStaysWithinPrecision() {
+        final var value = 123.456789f;
+        final var restored = UDPPacket.dequantize(UDPPacket.quantize(value, PRECISION), PRECISION);
+        assertTrue(Math.abs(value - restored) <= PRECISION / 2 + 1e-4f);
+    }
+
+    private SnapshotFrame frame(int tick, int firstId, int count) {
+        final var random = new Random(tick * 31L + count);
+        final var frame = new SnapshotFrame(8);
+        frame.reset(tick);
+        for (int i = 0; i < count; i++) {
+            final var id = firstId + i * 3;
+            frame.add(id, UDPPacket.quantize(random.nextFloat() * 500f, PRECISION),
+                    UDPPacket.quantize(random.nextFloat() * 20f, PRECISION), 0, (byte) (i & 1));
+        }
+        return frame;
+    }
+
+    private int encodedSize(SnapshotFrame frame, SnapshotFrame baseline) {
+        var total = 0;
+        var next = 0;
+        var part = 0;
+        do {
+            next = UDPPacket.writeDeltaSnapshot(datagram, writer, frame, next, baseline, part++, PRECISION);
+            total += datagram.remaining();
+        } while (next < frame.size());
+        return total;
+    }
+
+    private SnapshotFrame decodeAll(SnapshotFrame frame, SnapshotFrame baseline) {
+        final var decoded = new SnapshotFrame(8);
+        decoded.reset(frame.getTick());
+        var next = 0;
+        var part = 0;
+        do {
+            next = UDPPacket.writeDeltaSnapshot(datagram, writer, frame, next, baseline, part, PRECISION);
+            assertEquals(UDPPacket.DELTA_SNAPSHOT, datagram.get(0));
+            assertEquals(datagram.limit(), datagram.getShort(1));
+            assertEquals(frame.getTick(), UDPPacket.deltaTick(datagram));
+            assertEquals(baseline != null ? baseline.getTick() : UDPPacket.NO_BASELINE, UDPPacket.deltaBaselineTick(datagram));
+            assertEquals(part++, UDPPacket.deltaPart(datagram));
+            assertEquals(PRECISION, UDPPacket.deltaPrecision(datagram));
+            assertEquals(next == frame.size(), UDPPacket.deltaLastPart(datagram));
+            UDPPacket.readDeltaSnapshot(datagram, reader, baseline, decoded);
+        } while (next < frame.size());
+        if (frame.size() > 100) {
+            assertFalse(part == 1, "Expected a multi-part snapshot");
+        }
+        return decoded;
+    }
+
+    private static void assertFramesEqual(SnapshotFrame expected, SnapshotFrame actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.playerId(i), actual.playerId(i));
+            assertEquals(expected.x(i), actual.x(i));
+            assertEquals(expected.y(i), actual.y(i));
+            assertEquals(expected.z(i), actual.z(i));
+            assertEquals(expected.facing(i), actual.facing(i));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.game.server.side.udp;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UdpMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final UdpMetrics metrics = new UdpMetrics(registry);
+
+    @Test
+    void countersReadTheAdders() {
+        metrics.packetReceived(20);
+        metrics.packetReceived(30);
+        metrics.decodeFailure();
+        metrics.messageQueued(100, true);
+        metrics.messageQueued(100, false);
+
+        assertEquals(2, registry.get("udp.packets.received").functionCounter().count());
+        assertEquals(50, registry.get("udp.bytes.received").functionCounter().count());
+        assertEquals(1, registry.get("udp.packets.decode.failures").functionCounter().count());
+        assertEquals(200, registry.get("udp.bytes.queued").functionCounter().count());
+        assertEquals(1, registry.get("udp.sends.dropped").functionCounter().count());
+    }
+
+    @Test
+    void tickRecordsDurationAndFanOut() {
+        metrics.tickCompleted(2_000_000, 12);
+
+        assertEquals(1, registry.get("udp.tick.duration").timer().count());
+        assertEquals(12, registry.get("udp.tick.fanout").summary().totalAmount());
+    }
+
+    @Test
+    void sessionGaugeFollowsTheTable() {
+        final var sessions = new SessionTable(8, 4, 4, 1200, 10_000, 0);
+        metrics.bindSessions(sessions::size, sessions::capacity);
+        sessions.register(new InetSocketAddress("127.0.0.1", 5000), 1, 0);
+
+        assertEquals(1, registry.get("udp.sessions.active").gauge().value());
+        assertEquals(8, registry.get("udp.sessions.capacity").gauge().value());
+    }
+}
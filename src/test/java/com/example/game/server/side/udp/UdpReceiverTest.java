@@ -0,0 +1,108 @@
+package com.example.game.server.side.udp;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UdpReceiverTest {
+
+    private static final int WARMUP_PACKETS = 20_000;
+    private static final int MEASURED_PACKETS = 20_000;
+
+    // A new sender address: InetSocketAddress, Inet4Address and their holders, with compressed oops
+    private static final int SENDER_ADDRESS_BYTES = 128;
+
+    private DatagramChannel serverChannel;
+    private DatagramChannel clientChannel;
+    private DatagramChannel otherClientChannel;
+    private volatile int received;
+    private volatile long checksum;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        serverChannel = DatagramChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        clientChannel = DatagramChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        otherClientChannel = DatagramChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        serverChannel.close();
+        clientChannel.close();
+        otherClientChannel.close();
+    }
+
+    @Test
+    void receivePathDoesNotAllocatePerPacketFromOneSender() throws Exception {
+        final var allocated = measureReceive(clientChannel);
+        assertTrue(allocated / MEASURED_PACKETS == 0,
+                "Expected zero bytes per packet, got " + allocated + " bytes for " + MEASURED_PACKETS + " packets");
+    }
+
+    @Test
+    void interleavedSendersCostOneSenderAddressPerPacket() throws Exception {
+        // The channel only caches the last sender's address, so alternating senders miss it every time
+        final var allocated = measureReceive(clientChannel, otherClientChannel);
+        assertTrue(allocated / MEASURED_PACKETS <= SENDER_ADDRESS_BYTES,
+                "Expected at most " + SENDER_ADDRESS_BYTES + " bytes per packet, got " + allocated + " bytes for "
+                        + MEASURED_PACKETS + " packets");
+    }
+
+    // Bytes the receiver thread allocated for MEASURED_PACKETS packets sent by the clients in turn
+    private long measureReceive(DatagramChannel... clients) throws Exception {
+        final var pool = new ByteBufferPool(4, 1024);
+        final var receiver = new UdpReceiver(serverChannel, pool, (packet, sender) -> {
+            // Same in-place header decode UdpServer does
+            checksum += packet.get(0) + packet.getShort(1) + packet.getInt(3) + (long) packet.getFloat(7);
+            received++;
+        });
+        final var thread = new Thread(receiver, "udp-receiver-test");
+        thread.start();
+
+        final var target = serverChannel.getLocalAddress();
+        final var movePacket = ByteBuffer.allocateDirect(20).order(ByteOrder.LITTLE_ENDIAN)
+                .put((byte) 1).putShort((short) 20).putInt(42)
+                .putFloat(1f).putFloat(2f).putFloat(3f).put((byte) 0);
+
+        sendAndAwait(movePacket, target, WARMUP_PACKETS, clients);
+
+        final var threadMx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final var before = threadMx.getThreadAllocatedBytes(thread.threadId());
+        assertTrue(before >= 0, "Thread allocation accounting is not supported by this JVM");
+        sendAndAwait(movePacket, target, MEASURED_PACKETS, clients);
+        final var allocated = threadMx.getThreadAllocatedBytes(thread.threadId()) - before;
+
+        receiver.close();
+        thread.join(5000);
+
+        assertEquals(WARMUP_PACKETS + MEASURED_PACKETS, received);
+        assertEquals(4, pool.available());
+        return allocated;
+    }
+
+    // One datagram in flight at a time so loopback never drops anything
+    private void sendAndAwait(ByteBuffer packet, java.net.SocketAddress target, int count, DatagramChannel... clients)
+            throws Exception {
+        for (int i = 0; i < count; i++) {
+            final var expected = received + 1;
+            clients[i % clients.length].send(packet.rewind(), target);
+            final var deadline = System.nanoTime() + 1_000_000_000L;
+            while (received < expected) {
+                if (System.nanoTime() > deadline) {
+                    throw new AssertionError("Datagram " + i + " was not received");
+                }
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
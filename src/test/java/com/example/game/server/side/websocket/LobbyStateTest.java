@@ -0,0 +1,104 @@
+package com.example.game.server.side.websocket;
+
+import com.example.game.server.side.cluster.LoopbackRelay;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.SimpleMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LobbyStateTest {
+
+    private final List<Message<?>> sent = new ArrayList<>();
+    private final SimpMessagingTemplate template = template(sent);
+    private final LoopbackRelay.Hub hub = new LoopbackRelay.Hub();
+    private final LobbyState lobby = new LobbyState(template, new LoopbackRelay("a", hub));
+
+    @Test
+    void joinsAndLeavesAreNumberedEvents() {
+        lobby.join("s1", "alice");
+        lobby.join("s2", "bob");
+        assertEquals("alice", lobby.leave("s1"));
+        assertNull(lobby.leave("s1"));
+
+        assertEquals(List.of(
+                new LobbyEvent(1, LobbyEvent.Type.JOIN, "alice"),
+                new LobbyEvent(2, LobbyEvent.Type.JOIN, "bob"),
+                new LobbyEvent(3, LobbyEvent.Type.LEAVE, "alice")), payloads());
+    }
+
+    @Test
+    void snapshotNamesTheLastEventItIncludes() {
+        lobby.join("s1", "alice");
+        lobby.join("s2", "bob");
+        lobby.leave("s2");
+
+        assertEquals(new LobbySnapshot(3, List.of("alice")), lobby.snapshot());
+    }
+
+    @Test
+    void rejoiningWithTheSamePlayerIsNotAnEvent() {
+        lobby.join("s1", "alice");
+        lobby.join("s1", "alice");
+
+        assertEquals(1, sent.size());
+    }
+
+    @Test
+    void playersOnOtherNodesAreInTheLobby() {
+        lobby.join("s1", "alice");
+        final var otherRelay = new LoopbackRelay("b", hub);
+        final var other = new LobbyState(template(new ArrayList<>()), otherRelay);
+        other.join("s1", "bob");
+
+        assertEquals(List.of("alice", "bob"), lobby.snapshot().ids());
+        assertEquals(List.of("bob", "alice"), other.snapshot().ids());
+        assertEquals(new LobbyEvent(2, LobbyEvent.Type.JOIN, "bob"), sent.get(1).getPayload());
+
+        otherRelay.close();
+
+        assertEquals(List.of("alice"), lobby.snapshot().ids());
+        assertEquals(new LobbyEvent(3, LobbyEvent.Type.LEAVE, "bob"), sent.get(2).getPayload());
+        assertEquals(1, lobby.localSize());
+    }
+
+    @Test
+    void binaryConverterEncodesLobbyMessages() {
+        template.setMessageConverter(new LobbyMessageConverter());
+        lobby.join("s1", "ab");
+
+        final var expected = ByteBuffer.allocate(13).order(ByteOrder.LITTLE_ENDIAN)
+                .put(LobbyMessageConverter.KIND_JOIN).putLong(1).putShort((short) 2).put((byte) 'a').put((byte) 'b')
+                .array();
+        assertArrayEquals(expected, (byte[]) sent.get(0).getPayload());
+
+        final var snapshot = (byte[]) new LobbyMessageConverter().toMessage(lobby.snapshot(), null).getPayload();
+        final var buffer = ByteBuffer.wrap(snapshot).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(LobbyMessageConverter.KIND_SNAPSHOT, buffer.get());
+        assertEquals(1, buffer.getLong());
+        assertEquals(1, buffer.getInt());
+        assertEquals(2, buffer.getShort());
+    }
+
+    private List<Object> payloads() {
+        return sent.stream().<Object>map(Message::getPayload).toList();
+    }
+
+    private static SimpMessagingTemplate template(List<Message<?>> sink) {
+        final var channel = new ExecutorSubscribableChannel();
+        channel.subscribe(sink::add);
+        final var template = new SimpMessagingTemplate(channel);
+        // Pass lobby records through unconverted so the test can compare them
+        template.setMessageConverter(new SimpleMessageConverter());
+        return template;
+    }
+}